@@ -16,6 +16,7 @@ public class CommentDto {
     private UUID postId;
     private UUID authorMemberId;
     private String authorName;
+    private String authorAvatarUrl;
     private String contentText;
     private Instant createdAt;
     private Instant updatedAt;
@@ -0,0 +1,17 @@
+package com.example.demo.auth.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> content;
+    // Opaque cursor for the next page; null when there are no more items
+    private String nextCursor;
+    private boolean hasNext;
+}
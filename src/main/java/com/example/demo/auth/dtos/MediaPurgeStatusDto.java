@@ -0,0 +1,23 @@
+package com.example.demo.auth.dtos;
+
+import com.example.demo.models.MediaPurgeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaPurgeStatusDto {
+
+    private UUID weddingId;
+    private MediaPurgeStatus status;
+    private long deletedCount;
+    private int attempts;
+    private String lastError;
+    private Instant updatedAt;
+    private Instant completedAt;
+}
@@ -23,5 +23,9 @@ public class MemberProfileDto {
     private MemberStatus status;
     private Instant joinedAt;
     private long postCount;
+    private long commentCount;
+    private long likesGiven;
+    private long likesReceived;
+    private long mediaUploaded;
 }
 
@@ -0,0 +1,30 @@
+package com.example.demo.auth.dtos;
+
+import com.example.demo.models.OfflineActionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineActionDto {
+
+    @NotBlank(message = "Idempotency key is required")
+    @Size(max = 128, message = "Idempotency key must be at most 128 characters")
+    private String idempotencyKey;
+
+    // LIKE/UNLIKE carry the target state, so replaying a queued action twice cannot flip it back
+    @NotNull(message = "Action type is required")
+    private OfflineActionType type;
+
+    @NotBlank(message = "Post ID is required")
+    private String postId;
+
+    // Required for COMMENT
+    @Size(max = 500, message = "Content text must be less than 500 characters")
+    private String contentText;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.auth.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineActionResultDto {
+    private String idempotencyKey;
+    // APPLIED, DUPLICATE (already applied by an earlier replay) or REJECTED
+    private String status;
+    // Comment id for COMMENT, post id for LIKE/UNLIKE
+    private UUID resultId;
+    private String error;
+}
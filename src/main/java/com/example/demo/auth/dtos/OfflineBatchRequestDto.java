@@ -0,0 +1,19 @@
+package com.example.demo.auth.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineBatchRequestDto {
+
+    // Applied in list order
+    @NotEmpty(message = "At least one action is required")
+    private List<@Valid OfflineActionDto> actions;
+}
@@ -27,4 +27,6 @@ public class PostDto {
     private boolean isLikedByUser;
     private Instant createdAt;
     private Instant updatedAt;
+    // Latest comments, oldest first; only present when the feed was requested with commentPreview > 0
+    private List<CommentDto> commentPreview;
 }
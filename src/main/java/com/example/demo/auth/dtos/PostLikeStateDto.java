@@ -0,0 +1,16 @@
+package com.example.demo.auth.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostLikeStateDto {
+    private UUID postId;
+    private boolean liked;
+    private int likeCount;
+}
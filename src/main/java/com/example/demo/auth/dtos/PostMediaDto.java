@@ -1,12 +1,14 @@
 package com.example.demo.auth.dtos;
 
 import com.example.demo.models.MediaType;
+import com.example.demo.models.ThumbnailStatus;
 import com.example.demo.models.TranscodeStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -23,4 +25,11 @@ public class PostMediaDto {
     private int orderIndex;
     private TranscodeStatus transcodeStatus;
     private Instant createdAt;
+    private ThumbnailStatus thumbnailStatus;
+    // Only set once the server-side thumbnail exists
+    private String thumbnailUrl;
+    // Web-optimised video rendition; only set once transcoding COMPLETED
+    private String renditionUrl;
+    // Image renditions, smallest first, ending with the original; clients pick the smallest adequate one
+    private List<PostMediaVariantDto> variants;
 }
@@ -0,0 +1,16 @@
+package com.example.demo.auth.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostMediaVariantDto {
+    
+    // Null when the original's dimensions are unknown
+    private Integer width;
+    private Integer height;
+    private String url;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.auth.dtos;
+
+import com.example.demo.models.MediaType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedBatchItemDto {
+
+    @NotNull(message = "Media type is required")
+    private MediaType mediaType;
+
+    @NotNull(message = "Content type is required")
+    @Size(max = 100, message = "Content type must be less than 100 characters")
+    private String contentType;
+
+    // Images only; also signs the matching _thumbnail.jpg key
+    private boolean wantThumbnail;
+}
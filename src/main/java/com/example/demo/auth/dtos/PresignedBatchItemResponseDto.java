@@ -0,0 +1,15 @@
+package com.example.demo.auth.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedBatchItemResponseDto {
+
+    private PresignedUploadResponse original;
+    // Null unless a thumbnail was requested
+    private PresignedUploadResponse thumbnail;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.auth.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedBatchRequestDto {
+
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid PresignedBatchItemDto> items;
+}
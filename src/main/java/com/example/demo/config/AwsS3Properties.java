@@ -14,6 +14,27 @@ public class AwsS3Properties {
     private String region;
     private String bucketName;
     private String publicUrl;
+    // Optional S3-compatible endpoint (e.g. https://<account>.r2.cloudflarestorage.com for R2)
+    private String endpoint;
+    private boolean pathStyleAccess = false;
+    
+    // Shared HTTP client tuning
+    private int maxConnections = 64;
+    private long connectionTimeoutMillis = 2000;
+    private long socketTimeoutMillis = 30000;
+    private long connectionMaxIdleMillis = 60000;
+    private long apiCallTimeoutMillis = 0; // 0 = no overall limit (large uploads)
+    
+    // Batch presign: items per request and signing threads (0 = one per core)
+    private int presignBatchMaxItems = 50;
+    private int presignThreads = 0;
+    
+    // Streaming multipart upload: memory per upload is at most part size × parallelism
+    private int multipartPartSizeMB = 8; // S3 minimum is 5
+    private int multipartParallelism = 4;
+    private int multipartUploadThreads = 16;
+    private int multipartBufferPoolSize = 32; // part buffers shared by all uploads
+    private long multipartBufferWaitMillis = 10000; // longest wait for a free buffer before answering 503
     
     // Media upload settings
     private int maxFileSizeMB = 50;
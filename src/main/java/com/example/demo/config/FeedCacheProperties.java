@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.cache")
+public class FeedCacheProperties {
+    private boolean enabled = true;
+    // Total cached feed pages across all weddings
+    private long maxEntries = 2000;
+    // Only the first N pages of each wedding feed are cached
+    private int maxPages = 3;
+    private int maxPageSize = 50;
+    // Safety net for writes that don't publish events (deletes, profile edits)
+    private long ttlSeconds = 60;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "likes.write-behind")
+public class LikeCounterProperties {
+    // When false, like toggles update posts.like_count inside the request transaction
+    private boolean enabled = false;
+    private long flushIntervalMillis = 1000;
+    private long reconcileIntervalMillis = 600000;
+    // Reconciliation cannot see other nodes' unflushed deltas; disable it when running more than one node
+    private boolean reconcile = true;
+    // Only posts created within this window are reconciled against post_likes
+    private long reconcileLookbackHours = 168;
+}
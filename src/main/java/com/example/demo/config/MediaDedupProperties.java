@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "media-dedup")
+public class MediaDedupProperties {
+    private boolean enabled = true;
+    // Objects hashed concurrently during post finalization (each streams the object once)
+    private int hashThreads = 4;
+}
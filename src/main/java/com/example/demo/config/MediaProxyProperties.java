@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "media-proxy")
+public class MediaProxyProperties {
+    // When false, /auth/media redirects to the public URL as before
+    private boolean enabled = true;
+    // Wiped on startup; the index is in memory
+    private String cacheDir = "./media-cache";
+    private long maxBytes = 10L * 1024 * 1024 * 1024;
+    // Larger objects are not cached and fall back to the redirect
+    private long maxObjectBytes = 256L * 1024 * 1024;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "media-purge")
+public class MediaPurgeProperties {
+    // DeleteObjects batches in flight per purge (each batch is one listing page of up to 1000 keys)
+    private int parallelism = 4;
+    private int maxAttempts = 5;
+    // A RUNNING job without a progress heartbeat for this long is taken over by any node
+    private long staleAfterMinutes = 10;
+    private long resumeIntervalMillis = 300000;
+}
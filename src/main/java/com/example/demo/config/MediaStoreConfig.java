@@ -0,0 +1,30 @@
+package com.example.demo.config;
+
+import com.example.demo.services.LocalMediaStore;
+import com.example.demo.services.S3MediaStore;
+import com.example.demo.services.S3MultipartUploader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class MediaStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "media.store", havingValue = "s3", matchIfMissing = true)
+    public S3MediaStore s3MediaStore(AwsS3Properties awsS3Properties, S3Client s3Client, S3AsyncClient s3AsyncClient,
+                                     S3MultipartUploader multipartUploader) {
+        return new S3MediaStore(awsS3Properties, s3Client, s3AsyncClient, multipartUploader);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "media.store", havingValue = "local")
+    public LocalMediaStore localMediaStore(MediaStoreProperties properties) throws IOException {
+        return new LocalMediaStore(Path.of(properties.getLocalRoot()));
+    }
+}
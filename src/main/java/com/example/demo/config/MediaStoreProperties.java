@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "media")
+public class MediaStoreProperties {
+    // s3 (S3 / R2) or local (on-prem / venue-edge box serving its LAN)
+    private String store = "s3";
+    // Root directory of the local store
+    private String localRoot = "./media-data";
+    // Base URL media links are built on; blank falls back to aws.s3.publicUrl. Set it to <this server>/media with the local store
+    private String publicUrl = "";
+
+    public String publicUrlOr(String fallback) {
+        return publicUrl == null || publicUrl.isBlank() ? fallback : publicUrl;
+    }
+}
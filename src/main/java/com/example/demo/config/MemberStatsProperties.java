@@ -0,0 +1,15 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "member-stats")
+public class MemberStatsProperties {
+    // One-shot backfill of member_stats from posts/comments/likes/media on startup
+    private boolean rebuildOnStartup = false;
+    // Weddings rebuilt per batch (each wedding is one statement in its own transaction)
+    private int rebuildBatchSize = 100;
+}
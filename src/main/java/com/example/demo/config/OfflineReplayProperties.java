@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "offline-replay")
+public class OfflineReplayProperties {
+    private int maxActions = 500;
+    // Idempotency keys older than this are purged; clients must not replay older queues
+    private long keyRetentionHours = 168;
+}
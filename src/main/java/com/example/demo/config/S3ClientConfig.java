@@ -0,0 +1,115 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Application-wide S3 clients. The SDK clients are thread-safe and hold the connection pool,
+ * credentials and TLS sessions, so they are built once and closed on shutdown.
+ */
+@Configuration
+public class S3ClientConfig {
+
+    @Bean
+    public AwsCredentialsProvider s3CredentialsProvider(AwsS3Properties properties) {
+        if (properties.getAccessKeyId() == null || properties.getAccessKeyId().isBlank()) {
+            return DefaultCredentialsProvider.create();
+        }
+        return StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(properties.getAccessKeyId(), properties.getSecretAccessKey()));
+    }
+
+    @Bean
+    public S3MetricsPublisher s3MetricsPublisher(MeterRegistry meterRegistry) {
+        return new S3MetricsPublisher(meterRegistry);
+    }
+
+    @Bean
+    public S3Client s3Client(AwsS3Properties properties, AwsCredentialsProvider s3CredentialsProvider,
+                             S3MetricsPublisher s3MetricsPublisher) {
+        var builder = S3Client.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(s3CredentialsProvider)
+                .serviceConfiguration(serviceConfiguration(properties))
+                .overrideConfiguration(overrideConfiguration(properties, s3MetricsPublisher))
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(properties.getMaxConnections())
+                        .connectionTimeout(Duration.ofMillis(properties.getConnectionTimeoutMillis()))
+                        .socketTimeout(Duration.ofMillis(properties.getSocketTimeoutMillis()))
+                        .connectionMaxIdleTime(Duration.ofMillis(properties.getConnectionMaxIdleMillis()))
+                        .tcpKeepAlive(true)
+                        .useIdleConnectionReaper(true));
+        if (hasEndpoint(properties)) {
+            builder.endpointOverride(URI.create(properties.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public S3AsyncClient s3AsyncClient(AwsS3Properties properties, AwsCredentialsProvider s3CredentialsProvider,
+                                       S3MetricsPublisher s3MetricsPublisher) {
+        var builder = S3AsyncClient.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(s3CredentialsProvider)
+                .serviceConfiguration(serviceConfiguration(properties))
+                .overrideConfiguration(overrideConfiguration(properties, s3MetricsPublisher))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(properties.getMaxConnections())
+                        .connectionTimeout(Duration.ofMillis(properties.getConnectionTimeoutMillis()))
+                        .readTimeout(Duration.ofMillis(properties.getSocketTimeoutMillis()))
+                        .writeTimeout(Duration.ofMillis(properties.getSocketTimeoutMillis()))
+                        .connectionMaxIdleTime(Duration.ofMillis(properties.getConnectionMaxIdleMillis()))
+                        .tcpKeepAlive(true));
+        if (hasEndpoint(properties)) {
+            builder.endpointOverride(URI.create(properties.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public S3Presigner s3Presigner(AwsS3Properties properties, AwsCredentialsProvider s3CredentialsProvider) {
+        // Presigning is local signing only; it shares the credentials but needs no HTTP client
+        var builder = S3Presigner.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(s3CredentialsProvider)
+                .serviceConfiguration(serviceConfiguration(properties));
+        if (hasEndpoint(properties)) {
+            builder.endpointOverride(URI.create(properties.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    private static S3Configuration serviceConfiguration(AwsS3Properties properties) {
+        return S3Configuration.builder()
+                .pathStyleAccessEnabled(properties.isPathStyleAccess())
+                .build();
+    }
+
+    private static ClientOverrideConfiguration overrideConfiguration(AwsS3Properties properties, S3MetricsPublisher publisher) {
+        var builder = ClientOverrideConfiguration.builder().addMetricPublisher(publisher);
+        if (properties.getApiCallTimeoutMillis() > 0) {
+            builder.apiCallTimeout(Duration.ofMillis(properties.getApiCallTimeoutMillis()));
+        }
+        return builder.build();
+    }
+
+    private static boolean hasEndpoint(AwsS3Properties properties) {
+        return properties.getEndpoint() != null && !properties.getEndpoint().isBlank();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bridges AWS SDK request metrics into Micrometer:
+ * {@code s3.client.requests} (per-operation latency timer) and
+ * {@code s3.client.pool.leased|pending|available} (HTTP connection pool gauges, last observed value).
+ */
+public class S3MetricsPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AtomicInteger> poolGauges = new ConcurrentHashMap<>();
+
+    public S3MetricsPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(MetricCollection metrics) {
+        String operation = first(metrics.metricValues(CoreMetric.OPERATION_NAME), "unknown");
+        Boolean successful = first(metrics.metricValues(CoreMetric.API_CALL_SUCCESSFUL), Boolean.FALSE);
+        Duration duration = first(metrics.metricValues(CoreMetric.API_CALL_DURATION), null);
+        if (duration != null) {
+            Timer.builder("s3.client.requests")
+                    .tag("operation", operation)
+                    .tag("outcome", successful ? "success" : "error")
+                    .register(meterRegistry)
+                    .record(duration);
+        }
+        recordPool(metrics);
+    }
+
+    private void recordPool(MetricCollection metrics) {
+        String client = first(metrics.metricValues(HttpMetric.HTTP_CLIENT_NAME), null);
+        if (client != null) {
+            setPool(client, "leased", first(metrics.metricValues(HttpMetric.LEASED_CONCURRENCY), null));
+            setPool(client, "pending", first(metrics.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES), null));
+            setPool(client, "available", first(metrics.metricValues(HttpMetric.AVAILABLE_CONCURRENCY), null));
+        }
+        // HTTP metrics live in the per-attempt child collections
+        for (MetricCollection child : metrics.children()) {
+            recordPool(child);
+        }
+    }
+
+    private void setPool(String client, String state, Integer value) {
+        if (value == null) {
+            return;
+        }
+        poolGauges.computeIfAbsent(client + ":" + state, key -> {
+            AtomicInteger holder = new AtomicInteger();
+            Gauge.builder("s3.client.pool." + state, holder, AtomicInteger::get)
+                    .tag("client", client)
+                    .register(meterRegistry);
+            return holder;
+        }).set(value);
+    }
+
+    private static <T> T first(List<T> values, T fallback) {
+        return values.isEmpty() ? fallback : values.get(0);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "stream")
+public class StreamProperties {
+    // Pending events per connection before a slow client is disconnected (it resumes via Last-Event-ID)
+    private int perConnectionBuffer = 64;
+    // Recent events kept per wedding for Last-Event-ID replay
+    private int replayBufferSize = 256;
+    // A wedding's channel and replay buffer are kept this long after its last subscriber leaves
+    private long channelIdleTtlMinutes = 10;
+    private long heartbeatMillis = 15000;
+    private long emitterTimeoutMinutes = 30;
+}
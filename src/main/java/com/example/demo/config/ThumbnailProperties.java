@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "thumbnails")
+public class ThumbnailProperties {
+    private boolean enabled = true;
+    // The first (smallest) width is written as "<key>_thumbnail.jpg", the others as "<key>_thumbnail_<width>.jpg"
+    private List<Integer> widths = List.of(320, 640, 1080);
+    private float jpegQuality = 0.8f;
+    private int workers = 2;
+    // Jobs beyond this stay PENDING and are picked up by the sweep
+    private int queueCapacity = 200;
+    // Originals above this are marked FAILED instead of being decoded
+    private long maxSourcePixels = 50_000_000L;
+    private long sweepIntervalMillis = 60000;
+    private int sweepBatchSize = 100;
+}
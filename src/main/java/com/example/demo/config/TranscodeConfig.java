@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import com.example.demo.services.FfmpegTranscoder;
+import com.example.demo.services.StubTranscoder;
+import com.example.demo.services.Transcoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TranscodeConfig {
+
+    @Bean
+    public Transcoder transcoder(TranscodeProperties properties) {
+        return "stub".equalsIgnoreCase(properties.getTranscoder())
+                ? new StubTranscoder()
+                : new FfmpegTranscoder(properties);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transcode")
+public class TranscodeProperties {
+    private boolean enabled = true;
+    // auto (ffmpeg when installed), ffmpeg, or stub (copies the original; tests and local dev)
+    private String transcoder = "auto";
+    private String ffmpegPath = "ffmpeg";
+    private int maxWidth = 1280;
+    // Jobs running at once on this node
+    private int maxConcurrent = 1;
+    private long pollIntervalMillis = 10000;
+    private long timeoutMinutes = 20;
+    // A claim not finished within the lease (node died) is picked up again by any node
+    private long leaseMinutes = 30;
+    private int maxAttempts = 3;
+    private long backoffBaseSeconds = 60;
+    private long backoffMaxSeconds = 3600;
+}
@@ -0,0 +1,13 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wedding-version")
+public class WeddingVersionProperties {
+    // Like toggles mark the wedding dirty; dirty weddings are bumped once per interval
+    private long likeBumpIntervalMillis = 1000;
+}
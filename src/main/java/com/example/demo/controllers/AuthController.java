@@ -5,11 +5,17 @@ import com.example.demo.auth.jwt.JwtIssuer;
 import com.example.demo.auth.util.EmailUtil;
 import com.example.demo.auth.vendor.Msg91OtpClient;
 import com.example.demo.models.User;
+import com.example.demo.config.MediaProxyProperties;
+import com.example.demo.services.MediaProxyCache;
+import com.example.demo.services.MediaStore;
+import com.example.demo.services.MediaPurgeService;
 import com.example.demo.services.UserService;
 import com.example.demo.services.WeddingService;
 import com.example.demo.services.S3Service;
 import com.example.demo.repositories.WeddingMemberRepository;
 import com.example.demo.models.MemberStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +40,9 @@ public class AuthController {
     private final WeddingService weddingService;
     private final S3Service s3Service;
     private final WeddingMemberRepository weddingMemberRepository;
+    private final MediaPurgeService mediaPurgeService;
+    private final MediaProxyCache mediaProxyCache;
+    private final MediaProxyProperties mediaProxyProperties;
 
     @PostMapping("/otp/request")
     public Mono<ResponseEntity<?>> requestOtp(@Valid @RequestBody OtpRequestDto request) {
@@ -400,30 +409,93 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
+
+    @GetMapping("/weddings/{weddingId}/purge")
+    public ResponseEntity<?> getMediaPurgeStatus(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String weddingId) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            String userId = jwtIssuer.getUserIdFromToken(token);
+
+            MediaPurgeStatusDto status = mediaPurgeService.getStatus(
+                    java.util.UUID.fromString(userId),
+                    java.util.UUID.fromString(weddingId)
+            );
+            return ResponseEntity.ok(status);
+
+        } catch (IllegalArgumentException e) {
+            ErrorResponseDto error = new ErrorResponseDto("MEDIA_PURGE_ERROR", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Unexpected error in media purge status", e);
+            ErrorResponseDto error = new ErrorResponseDto("INTERNAL_ERROR", "An unexpected error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
     
 
     
+    /**
+     * Streams a wedding's media to its members from the local proxy cache (Range and conditional
+     * requests supported), so hot photos are served from disk and the bucket need not be public.
+     * Responses are marked private, since only members may see them. Range requests that miss the
+     * cache are read from the store directly. Otherwise falls back to a redirect to the public URL
+     * when the proxy is disabled or the object is too large to cache.
+     */
     @GetMapping("/media/{weddingId}/{objectKey}")
     public ResponseEntity<?> getMedia(@PathVariable String weddingId, 
                                     @PathVariable String objectKey,
-                                    @RequestHeader("Authorization") String authHeader) {
+                                    @RequestHeader("Authorization") String authHeader,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) {
         try {
             String token = authHeader.replace("Bearer ", "");
             String userId = jwtIssuer.getUserIdFromToken(token);
             
             // Verify user has access to this wedding
-            // TODO: Add wedding access verification
+            if (!weddingService.isUserMemberOfWedding(java.util.UUID.fromString(userId), java.util.UUID.fromString(weddingId))) {
+                ErrorResponseDto error = new ErrorResponseDto("FORBIDDEN", "User is not a member of this wedding");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
             
-            // Get public media URL
             String fullObjectKey = weddingId + "/" + objectKey;
-            String publicUrl = s3Service.getPublicMediaUrl(fullObjectKey);
+            if (mediaProxyProperties.isEnabled()) {
+                String range = request.getHeader("Range");
+                // A range that misses the cache is read from the store as is instead of waiting for the whole object
+                try (MediaProxyCache.OpenObject open = range != null
+                        ? mediaProxyCache.openIfCached(fullObjectKey)
+                        : mediaProxyCache.open(fullObjectKey)) {
+                    if (open != null) {
+                        MediaProxyCache.CachedObject object = open.object();
+                        MediaResponses.write(request, response, object.file(), open.channel(), object.sizeBytes(),
+                                object.cachedAt(), object.contentType(), object.eTag(), MediaResponses.PRIVATE_IMMUTABLE);
+                        // Response already written
+                        return null;
+                    }
+                }
+                if (range != null) {
+                    try (MediaStore.Download download = mediaProxyCache.readRange(fullObjectKey, range)) {
+                        if (download != null) {
+                            MediaResponses.writeDownload(request, response, download, MediaResponses.PRIVATE_IMMUTABLE);
+                            return null;
+                        }
+                    }
+                }
+            }
             
             // Redirect to public URL
+            String publicUrl = s3Service.getPublicMediaUrl(fullObjectKey);
             return ResponseEntity.status(HttpStatus.FOUND)
                     .header("Location", publicUrl)
                     .build();
                     
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Usually the client going away mid-body; nothing more can be sent
+                log.debug("Media response aborted: {}", e.getMessage());
+                return null;
+            }
             log.error("Error serving media: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(java.util.Map.of("error", "Media not found"));
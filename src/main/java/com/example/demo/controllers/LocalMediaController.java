@@ -0,0 +1,73 @@
+package com.example.demo.controllers;
+
+import com.example.demo.auth.jwt.JwtIssuer;
+import com.example.demo.services.LocalMediaStore;
+import com.example.demo.services.WeddingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+
+/**
+ * Serves objects of the local media store to members of the owning wedding (see MediaResponses for
+ * caching, Range and zero-copy handling). Like /auth/media, responses are private to the viewer.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "media.store", havingValue = "local")
+public class LocalMediaController {
+
+    private final LocalMediaStore localMediaStore;
+    private final JwtIssuer jwtIssuer;
+    private final WeddingService weddingService;
+
+    @GetMapping("/media/{weddingId}/{objectKey:.+}")
+    public void serve(@PathVariable String weddingId, @PathVariable String objectKey,
+                      @RequestHeader(value = "Authorization", required = false) String authHeader,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UUID userId;
+        UUID weddingUuid;
+        try {
+            userId = UUID.fromString(jwtIssuer.getUserIdFromToken(authHeader.replace("Bearer ", "")));
+            weddingUuid = UUID.fromString(weddingId);
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        if (!weddingService.isUserMemberOfWedding(userId, weddingUuid)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        Path file;
+        BasicFileAttributes attributes;
+        try {
+            file = localMediaStore.pathOf(weddingId + "/" + objectKey);
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IllegalArgumentException | IOException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile() || file.getFileName().toString().startsWith(".")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        MediaResponses.write(request, response, file, null, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                LocalMediaStore.contentType(file),
+                LocalMediaStore.etag(attributes.size(), attributes.lastModifiedTime().toMillis()),
+                MediaResponses.PRIVATE_IMMUTABLE);
+    }
+}
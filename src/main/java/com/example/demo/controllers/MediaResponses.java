@@ -0,0 +1,184 @@
+package com.example.demo.controllers;
+
+import com.example.demo.services.MediaStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes an immutable file-backed media object to the response: one-year Cache-Control (public, or
+ * private for members-only media), ETag / If-None-Match, single byte ranges with If-Range, and a
+ * zero-copy body (Tomcat sendfile or FileChannel.transferTo). Ranges read straight from the media
+ * store are written with {@link #writeDownload}.
+ */
+final class MediaResponses {
+
+    static final String PUBLIC_IMMUTABLE = "public, max-age=31536000, immutable";
+    // Members-only media must not be stored by shared caches (CDNs, proxies)
+    static final String PRIVATE_IMMUTABLE = "private, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private MediaResponses() {
+    }
+
+    /**
+     * @param openChannel an already-open channel on the file, for files that may be deleted concurrently
+     *                    (sendfile is then skipped, since Tomcat reopens the file by name); null otherwise
+     * @param lastModified epoch millis, or 0 to omit Last-Modified
+     * @param cacheControl {@link #PUBLIC_IMMUTABLE} or {@link #PRIVATE_IMMUTABLE}
+     */
+    static void write(HttpServletRequest request, HttpServletResponse response, Path file, FileChannel openChannel,
+                      long size, long lastModified, String contentType, String etag, String cacheControl) throws IOException {
+        if (writeValidators(request, response, lastModified, etag, cacheControl)) {
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        if (range != null && size > 0 && (ifRange == null || ifRange.equals(etag))) {
+            long[] parsed = parseRange(range, size);
+            if (parsed != null && parsed.length == 0) {
+                response.setHeader("Content-Range", "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed != null) {
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        long length = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        if (openChannel == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat streams the file with sendfile(2) after the handler returns; no copy through user space
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        FileChannel channel = openChannel != null ? openChannel : FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } finally {
+            if (openChannel == null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a body read from the media store, already cut to the requested range by the store.
+     * Object keys are immutable, so an If-Range validator always matches and is not re-checked.
+     */
+    static void writeDownload(HttpServletRequest request, HttpServletResponse response, MediaStore.Download download,
+                              String cacheControl) throws IOException {
+        if (writeValidators(request, response, 0, download.eTag(), cacheControl)) {
+            return;
+        }
+        if (download.length() == 0 && download.sizeBytes() > 0) {
+            response.setHeader("Content-Range", "bytes */" + download.sizeBytes());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (download.partial()) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + download.start() + "-"
+                    + (download.start() + download.length() - 1) + "/" + download.sizeBytes());
+        }
+        response.setContentType(download.contentType());
+        response.setContentLengthLong(download.length());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        download.body().transferTo(response.getOutputStream());
+    }
+
+    /**
+     * Sets the caching and validator headers; returns true when a 304 was sent.
+     */
+    private static boolean writeValidators(HttpServletRequest request, HttpServletResponse response, long lastModified,
+                                           String etag, String cacheControl) {
+        response.setHeader("Cache-Control", cacheControl);
+        response.setHeader("Accept-Ranges", "bytes");
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+        }
+        if (lastModified > 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || (etag != null && ifNoneMatch.contains(etag)))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a single "bytes=" range. Returns {start, end} (inclusive), an empty array when the
+     * range cannot be satisfied, or null to ignore the header (multiple ranges or malformed) and send it all.
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            if (!last.isEmpty() && Long.parseLong(last) < start) {
+                return null;
+            }
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
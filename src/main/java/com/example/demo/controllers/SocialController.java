@@ -18,14 +18,22 @@ import com.example.demo.repositories.WeddingRepository;
 import com.example.demo.repositories.HelplineRepository;
 import com.example.demo.models.Helpline;
 import com.example.demo.services.ChallengeService;
+import com.example.demo.services.MemberStatsService;
+import com.example.demo.services.OfflineReplayService;
+import com.example.demo.services.WeddingActivityStream;
+import com.example.demo.services.WeddingVersionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.UUID;
 
@@ -44,6 +52,10 @@ public class SocialController {
     private final ChallengeService challengeService;
     private final WeddingRepository weddingRepository;
     private final HelplineRepository helplineRepository;
+    private final WeddingActivityStream weddingActivityStream;
+    private final WeddingVersionService weddingVersionService;
+    private final MemberStatsService memberStatsService;
+    private final OfflineReplayService offlineReplayService;
     
     @PostMapping("/weddings/{weddingId}/posts")
     public ResponseEntity<?> createPost(
@@ -78,11 +90,18 @@ public class SocialController {
     @GetMapping("/weddings/{weddingId}/members")
     public ResponseEntity<?> getWeddingMembers(
             @RequestHeader("Authorization") String authHeader,
-            @PathVariable java.util.UUID weddingId) {
+            @PathVariable java.util.UUID weddingId,
+            WebRequest webRequest) {
         try {
             String token = authHeader.replace("Bearer ", "");
             String userId = jwtIssuer.getUserIdFromToken(token);
 
+            // Conditional GET: only the wedding version is read when the client is up to date
+            String etag = weddingVersionService.etag(weddingId, "members");
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return null;
+            }
+
             var members = weddingMemberRepository.findByWeddingIdAndStatus(
                     weddingId, MemberStatus.ACCEPTED);
 
@@ -98,7 +117,7 @@ public class SocialController {
             }
 
             log.info("Retrieved {} members for wedding {} by user {}", result.size(), weddingId, userId);
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok().eTag(etag).body(result);
 
         } catch (IllegalArgumentException e) {
             log.error("Invalid wedding id: {}", weddingId, e);
@@ -113,14 +132,19 @@ public class SocialController {
 
     @GetMapping("/weddings/{weddingId}/venues")
     public ResponseEntity<?> getVenues(@RequestHeader("Authorization") String authHeader,
-                                       @PathVariable String weddingId) {
+                                       @PathVariable String weddingId,
+                                       WebRequest webRequest) {
         try {
+            String etag = weddingVersionService.etag(java.util.UUID.fromString(weddingId), "venues");
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return null;
+            }
             var venues = venueRepository.findByWeddingId(java.util.UUID.fromString(weddingId));
             java.util.List<VenueDto> list = new java.util.ArrayList<>();
             for (Venue v : venues) {
                 list.add(new VenueDto(v.getId(), v.getWeddingId(), v.getName(), v.getAddress(), v.getMapsUrl(), v.getNotes(), v.getCreatedAt()));
             }
-            return ResponseEntity.ok(list);
+            return ResponseEntity.ok().eTag(etag).body(list);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponseDto("INTERNAL_ERROR", "Failed to fetch venues"));
@@ -141,6 +165,7 @@ public class SocialController {
             }
             Venue v = new Venue(wId, request.getName(), request.getAddress(), request.getMapsUrl(), request.getNotes());
             var saved = venueRepository.save(v);
+            weddingVersionService.bump(wId);
             return ResponseEntity.ok(new VenueDto(saved.getId(), saved.getWeddingId(), saved.getName(), saved.getAddress(), saved.getMapsUrl(), saved.getNotes(), saved.getCreatedAt()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -150,14 +175,19 @@ public class SocialController {
 
     @GetMapping("/weddings/{weddingId}/events")
     public ResponseEntity<?> getEvents(@RequestHeader("Authorization") String authHeader,
-                                       @PathVariable String weddingId) {
+                                       @PathVariable String weddingId,
+                                       WebRequest webRequest) {
         try {
+            String etag = weddingVersionService.etag(java.util.UUID.fromString(weddingId), "events");
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return null;
+            }
             var events = eventRepository.findByWeddingIdOrderByStartTimeAsc(java.util.UUID.fromString(weddingId));
             java.util.List<EventDto> list = new java.util.ArrayList<>();
             for (Event e : events) {
                 list.add(new EventDto(e.getId(), e.getWeddingId(), e.getVenueId(), e.getTitle(), e.getDescription(), e.getStartTime()));
             }
-            return ResponseEntity.ok(list);
+            return ResponseEntity.ok().eTag(etag).body(list);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponseDto("INTERNAL_ERROR", "Failed to fetch events"));
@@ -189,6 +219,7 @@ public class SocialController {
             }
             Event e = new Event(wId, venueId, request.getTitle(), request.getDescription(), start, end);
             var saved = eventRepository.save(e);
+            weddingVersionService.bump(wId);
             return ResponseEntity.ok(new EventDto(saved.getId(), saved.getWeddingId(), saved.getVenueId(), saved.getTitle(), saved.getDescription(), saved.getStartTime()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -201,22 +232,46 @@ public class SocialController {
             @RequestHeader("Authorization") String authHeader,
             @PathVariable String weddingId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int commentPreview,
+            WebRequest webRequest) {
         try {
             // Extract user ID from JWT token
             String token = authHeader.replace("Bearer ", "");
             String userId = jwtIssuer.getUserIdFromToken(token);
-            
+
+            // isLikedByUser is per viewer, so the viewer is part of the representation
+            String etag = weddingVersionService.etag(UUID.fromString(weddingId), "posts", userId, page, size, cursor, commentPreview);
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return null;
+            }
+
+            // Cursor mode: "?cursor=" (empty) requests the first page, then pass back nextCursor.
+            // Page/size mode stays as a fallback for older clients.
+            if (cursor != null) {
+                CursorPageDto<PostDto> feed = postService.getWeddingPostsByCursor(
+                        UUID.fromString(userId),
+                        UUID.fromString(weddingId),
+                        cursor,
+                        size,
+                        commentPreview
+                );
+                log.info("Retrieved {} posts (cursor) for wedding {} by user {}", feed.getContent().size(), weddingId, userId);
+                return ResponseEntity.ok().eTag(etag).body(feed);
+            }
+
             // Get posts
             Page<PostDto> posts = postService.getWeddingPosts(
                     UUID.fromString(userId),
                     UUID.fromString(weddingId),
                     page,
-                    size
+                    size,
+                    commentPreview
             );
             
             log.info("Retrieved {} posts for wedding {} by user {}", posts.getTotalElements(), weddingId, userId);
-            return ResponseEntity.ok(posts);
+            return ResponseEntity.ok().eTag(etag).body(posts);
             
         } catch (IllegalArgumentException e) {
             log.error("Invalid request for wedding posts: {}", e.getMessage());
@@ -229,6 +284,30 @@ public class SocialController {
         }
     }
     
+    @GetMapping("/weddings/{weddingId}/stream")
+    public SseEmitter streamWeddingActivity(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String weddingId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // Errors surface through GlobalExceptionHandler; the happy path returns a long-lived emitter
+        String token = authHeader.replace("Bearer ", "");
+        UUID userId = UUID.fromString(jwtIssuer.getUserIdFromToken(token));
+        UUID wId = UUID.fromString(weddingId);
+        if (!weddingMemberRepository.existsByWeddingIdAndUserIdAndStatus(wId, userId, MemberStatus.ACCEPTED)) {
+            throw new IllegalArgumentException("User is not a member of this wedding");
+        }
+
+        Long resumeFrom = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ignored) {}
+        }
+
+        log.info("User {} subscribed to activity stream of wedding {}", userId, weddingId);
+        return weddingActivityStream.subscribe(wId, resumeFrom);
+    }
+    
     @PostMapping("/posts/{postId}/comments")
     public ResponseEntity<?> createComment(
             @RequestHeader("Authorization") String authHeader,
@@ -264,12 +343,25 @@ public class SocialController {
             @RequestHeader("Authorization") String authHeader,
             @PathVariable String postId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
         try {
             // Extract user ID from JWT token
             String token = authHeader.replace("Bearer ", "");
             String userId = jwtIssuer.getUserIdFromToken(token);
             
+            // Incremental sync: "?after=" (empty) starts from the oldest comment, then pass back nextCursor
+            if (after != null) {
+                CursorPageDto<CommentDto> thread = postService.getPostCommentsAfter(
+                        UUID.fromString(userId),
+                        UUID.fromString(postId),
+                        after,
+                        size
+                );
+                log.info("Retrieved {} comments (cursor) for post {} by user {}", thread.getContent().size(), postId, userId);
+                return ResponseEntity.ok(thread);
+            }
+            
             // Get comments
             Page<CommentDto> comments = postService.getPostComments(
                     UUID.fromString(userId),
@@ -292,6 +384,30 @@ public class SocialController {
         }
     }
     
+    @DeleteMapping("/posts/{postId}")
+    public ResponseEntity<?> deletePost(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String postId) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            String userId = jwtIssuer.getUserIdFromToken(token);
+            
+            postService.deletePost(UUID.fromString(userId), UUID.fromString(postId));
+            
+            log.info("User {} deleted post {}", userId, postId);
+            return ResponseEntity.noContent().build();
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid post deletion request: {}", e.getMessage());
+            ErrorResponseDto error = new ErrorResponseDto("POST_DELETION_ERROR", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Unexpected error in post deletion", e);
+            ErrorResponseDto error = new ErrorResponseDto("INTERNAL_ERROR", "An unexpected error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @PostMapping("/posts/{postId}/like")
     public ResponseEntity<?> togglePostLike(
             @RequestHeader("Authorization") String authHeader,
@@ -301,14 +417,14 @@ public class SocialController {
             String token = authHeader.replace("Bearer ", "");
             String userId = jwtIssuer.getUserIdFromToken(token);
             
-            // Toggle like
-            postService.togglePostLike(
+            // Toggle like; the response carries the new state so clients need not refetch the post
+            PostLikeStateDto state = postService.togglePostLike(
                     UUID.fromString(userId),
                     UUID.fromString(postId)
             );
             
             log.info("User {} toggled like on post {}", userId, postId);
-            return ResponseEntity.ok().build();
+            return ResponseEntity.ok(state);
             
         } catch (IllegalArgumentException e) {
             log.error("Invalid like request: {}", e.getMessage());
@@ -321,6 +437,34 @@ public class SocialController {
         }
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<?> replayOfflineActions(
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody OfflineBatchRequestDto request) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            String userId = jwtIssuer.getUserIdFromToken(token);
+            
+            // Queued likes/comments are applied in order, each at most once per idempotency key
+            java.util.List<OfflineActionResultDto> results = offlineReplayService.replay(
+                    UUID.fromString(userId),
+                    request.getActions()
+            );
+            
+            log.info("Replayed {} offline actions for user {}", results.size(), userId);
+            return ResponseEntity.ok(results);
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid offline batch: {}", e.getMessage());
+            ErrorResponseDto error = new ErrorResponseDto("BATCH_ERROR", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Unexpected error in replaying offline actions", e);
+            ErrorResponseDto error = new ErrorResponseDto("INTERNAL_ERROR", "An unexpected error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @PostMapping("/weddings/{weddingId}/media/presigned-url")
     public ResponseEntity<?> generatePresignedUploadUrl(
             @RequestHeader("Authorization") String authHeader,
@@ -353,6 +497,32 @@ public class SocialController {
         }
     }
     
+    @PostMapping("/weddings/{weddingId}/media/presigned-batch")
+    public ResponseEntity<?> generatePresignedUploadBatch(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String weddingId,
+            @Valid @RequestBody PresignedBatchRequestDto request) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            String userId = jwtIssuer.getUserIdFromToken(token);
+
+            var response = postService.generatePresignedUploadBatch(
+                    UUID.fromString(userId),
+                    UUID.fromString(weddingId),
+                    request.getItems()
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid presigned batch request: {}", e.getMessage());
+            ErrorResponseDto error = new ErrorResponseDto("PRESIGNED_URL_ERROR", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Unexpected error in generating presigned batch", e);
+            ErrorResponseDto error = new ErrorResponseDto("INTERNAL_ERROR", "An unexpected error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @PostMapping("/weddings/{weddingId}/media/upload")
     public ResponseEntity<?> uploadMedia(
             @RequestHeader("Authorization") String authHeader,
@@ -379,6 +549,10 @@ public class SocialController {
             log.error("Invalid media upload request: {}", e.getMessage());
             ErrorResponseDto error = new ErrorResponseDto("MEDIA_UPLOAD_ERROR", e.getMessage());
             return ResponseEntity.badRequest().body(error);
+        } catch (ResponseStatusException e) {
+            log.warn("Media upload rejected: {}", e.getReason());
+            ErrorResponseDto error = new ErrorResponseDto("MEDIA_UPLOAD_BUSY", e.getReason());
+            return ResponseEntity.status(e.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "5").body(error);
         } catch (Exception e) {
             log.error("Unexpected error in media upload", e);
             ErrorResponseDto error = new ErrorResponseDto("INTERNAL_ERROR", "An unexpected error occurred");
@@ -386,6 +560,45 @@ public class SocialController {
         }
     }
 
+    /**
+     * Raw-body upload (send the file as the request body with its Content-Type, not multipart/form-data).
+     * The body is streamed straight to S3, so large videos are never buffered whole on the server.
+     */
+    @PutMapping("/weddings/{weddingId}/media/stream")
+    public ResponseEntity<?> streamMedia(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String weddingId,
+            jakarta.servlet.http.HttpServletRequest request) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            String userId = jwtIssuer.getUserIdFromToken(token);
+            
+            String mediaUrl = postService.uploadMediaStream(
+                    UUID.fromString(userId),
+                    UUID.fromString(weddingId),
+                    request.getInputStream(),
+                    request.getContentType(),
+                    request.getContentLengthLong()
+            );
+            
+            log.info("Streamed media for wedding {} by user {}", weddingId, userId);
+            return ResponseEntity.ok(java.util.Map.of("mediaUrl", mediaUrl));
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid media stream request: {}", e.getMessage());
+            ErrorResponseDto error = new ErrorResponseDto("MEDIA_UPLOAD_ERROR", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (ResponseStatusException e) {
+            log.warn("Media upload rejected: {}", e.getReason());
+            ErrorResponseDto error = new ErrorResponseDto("MEDIA_UPLOAD_BUSY", e.getReason());
+            return ResponseEntity.status(e.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "5").body(error);
+        } catch (Exception e) {
+            log.error("Unexpected error in media stream upload", e);
+            ErrorResponseDto error = new ErrorResponseDto("INTERNAL_ERROR", "An unexpected error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @GetMapping("/weddings/{weddingId}/members/{memberId}")
     public ResponseEntity<?> getMemberProfile(
             @RequestHeader("Authorization") String authHeader,
@@ -406,13 +619,16 @@ public class SocialController {
             var userOpt = userRepository.findById(member.getUserId());
             String name = userOpt.map(u -> u.getName()).orElse(null);
             String avatar = userOpt.map(u -> u.getAvatarUrl()).orElse(null);
-            long postCount = 0L;
+            // Counters are maintained incrementally; members without activity have no row yet
+            var stats = memberStatsService.getStats(member.getId())
+                    .orElseGet(com.example.demo.models.MemberStats::new);
 
             com.example.demo.auth.dtos.MemberProfileDto dto = new com.example.demo.auth.dtos.MemberProfileDto(
                     member.getId(), member.getWeddingId(), member.getUserId(),
                     name, member.getDisplayName(), avatar,
                     member.getRole(), member.getStatus(), member.getJoinedAt(),
-                    postCount
+                    stats.getPostCount(), stats.getCommentCount(), stats.getLikesGiven(),
+                    stats.getLikesReceived(), stats.getMediaUploaded()
             );
             return ResponseEntity.ok(dto);
         } catch (Exception e) {
@@ -0,0 +1,9 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published inside PostService.createComment; listeners typically react after commit.
+ */
+public record CommentCreatedEvent(UUID weddingId, UUID postId, UUID commentId) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.events;
+
+import java.util.List;
+
+/**
+ * Full object keys no PostMedia refers to any more (redundant duplicate uploads, released content).
+ * Deleted from the media store once the publishing transaction commits.
+ */
+public record MediaObjectsOrphanedEvent(List<String> objectKeys) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published inside PostService.createPost; listeners typically react after commit.
+ */
+public record PostCreatedEvent(UUID weddingId, UUID postId) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published inside PostService.deletePost; listeners typically react after commit.
+ */
+public record PostDeletedEvent(UUID weddingId, UUID postId, UUID authorMemberId, long likeCount) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published inside PostService.togglePostLike. {@code liked} is the new state for the member,
+ * {@code likeCount} the post's like count after the toggle, {@code authorMemberId} the post's author.
+ */
+public record PostLikeToggledEvent(UUID weddingId, UUID postId, UUID memberId, UUID authorMemberId, boolean liked,
+                                   int likeCount) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published by background media processing once derived objects (thumbnails, renditions) of a post's media exist.
+ * Usually published outside any transaction.
+ */
+public record PostMediaProcessedEvent(UUID weddingId, UUID postId, UUID mediaId) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published inside UserService.updateUser with the user's name and avatar after the update.
+ */
+public record UserProfileUpdatedEvent(UUID userId, String name, String avatarUrl) {
+}
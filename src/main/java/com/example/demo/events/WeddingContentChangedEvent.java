@@ -0,0 +1,9 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Generic "something visible in this wedding changed" signal (members, events, venues).
+ */
+public record WeddingContentChangedEvent(UUID weddingId) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.events;
+
+import java.util.UUID;
+
+/**
+ * Published inside WeddingService.deleteWedding, before the wedding is deactivated.
+ */
+public record WeddingDeletedEvent(UUID weddingId) {
+}
@@ -9,7 +9,11 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments",
+       indexes = {
+               @Index(name = "idx_comments_author_user", columnList = "author_user_id"),
+               @Index(name = "idx_comments_post_thread", columnList = "post_id, created_at, id")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +29,17 @@ public class Comment {
     @Column(name = "author_member_id", nullable = false)
     private UUID authorMemberId;
     
+    // Author snapshot so comment pages need no member/user lookups; refreshed when the profile changes.
+    // Null on comments created before the snapshot existed.
+    @Column(name = "author_user_id")
+    private UUID authorUserId;
+    
+    @Column(name = "author_name")
+    private String authorName;
+    
+    @Column(name = "author_avatar_url")
+    private String authorAvatarUrl;
+    
     @Column(name = "content_text", nullable = false, columnDefinition = "TEXT")
     private String contentText;
     
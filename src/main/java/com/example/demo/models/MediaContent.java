@@ -0,0 +1,45 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Per-wedding content-hash index of stored media objects. Every PostMedia carrying the hash holds one
+ * reference; the object may be deleted once ref_count drops to zero. Maintained by MediaContentRepository.
+ */
+@Entity
+@Table(name = "media_contents",
+       uniqueConstraints = @UniqueConstraint(name = "uk_media_contents_wedding_hash", columnNames = {"wedding_id", "content_hash"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaContent {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "wedding_id", nullable = false)
+    private UUID weddingId;
+
+    // Hex SHA-256 of the object bytes
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Leaf key of the canonical object, as stored on PostMedia
+    @Column(name = "object_key", nullable = false)
+    private String objectKey;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
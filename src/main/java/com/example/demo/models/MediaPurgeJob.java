@@ -0,0 +1,47 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of the asynchronous S3 purge of a deleted wedding's media; one row per wedding.
+ * updated_at doubles as the heartbeat of the node running it.
+ */
+@Entity
+@Table(name = "media_purge_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaPurgeJob {
+
+    @Id
+    @Column(name = "wedding_id")
+    private UUID weddingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaPurgeStatus status;
+
+    @Column(name = "deleted_count", nullable = false)
+    private long deletedCount;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
@@ -0,0 +1,46 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Per-member activity counters, maintained in the same transaction as the writes they count
+ * so profile reads are a single primary-key lookup.
+ */
+@Entity
+@Table(name = "member_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberStats {
+
+    @Id
+    @Column(name = "member_id")
+    private UUID memberId;
+
+    @Column(name = "wedding_id", nullable = false)
+    private UUID weddingId;
+
+    @Column(name = "post_count", nullable = false)
+    private long postCount = 0;
+
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount = 0;
+
+    @Column(name = "likes_given", nullable = false)
+    private long likesGiven = 0;
+
+    @Column(name = "likes_received", nullable = false)
+    private long likesReceived = 0;
+
+    @Column(name = "media_uploaded", nullable = false)
+    private long mediaUploaded = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -9,7 +9,8 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts",
+       indexes = @Index(name = "idx_posts_wedding_feed", columnList = "wedding_id, created_at, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
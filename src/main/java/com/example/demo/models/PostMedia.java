@@ -6,10 +6,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "post_media")
+@Table(name = "post_media",
+       indexes = {
+               @Index(name = "idx_post_media_thumbnail_status", columnList = "thumbnail_status"),
+               @Index(name = "idx_post_media_transcode_queue", columnList = "transcode_status, transcode_next_attempt_at"),
+               // Dedup: finds earlier media sharing an object to reuse its thumbnails and rendition
+               @Index(name = "idx_post_media_object_key_hash", columnList = "object_key, content_hash")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +47,14 @@ public class PostMedia {
     @Column(name = "size_bytes", nullable = false)
     private long sizeBytes;
     
+    // S3 ETag recorded when the upload was finalized
+    @Column(name = "etag", length = 128)
+    private String etag;
+    
+    // SHA-256 of the content, holding a reference in media_contents; null for media finalized before dedup
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(name = "duration_sec")
     private Integer durationSec;
     
@@ -49,6 +65,32 @@ public class PostMedia {
     @Column(name = "transcode_status")
     private TranscodeStatus transcodeStatus;
     
+    // Transcode queue bookkeeping, maintained by TranscodeQueueRepository
+    @Column(name = "transcode_attempts", nullable = false, columnDefinition = "integer default 0")
+    private int transcodeAttempts;
+    
+    @Column(name = "transcode_next_attempt_at")
+    private Instant transcodeNextAttemptAt;
+    
+    @Column(name = "transcode_locked_until")
+    private Instant transcodeLockedUntil;
+    
+    // Null for non-images and for images uploaded before server-side thumbnails
+    @Enumerated(EnumType.STRING)
+    @Column(name = "thumbnail_status")
+    private ThumbnailStatus thumbnailStatus;
+    
+    // Pixel size of the original, recorded when thumbnails are generated (images only)
+    @Column(name = "width")
+    private Integer width;
+    
+    @Column(name = "height")
+    private Integer height;
+    
+    // Comma-separated widths of the generated variants, smallest first (see variants)
+    @Column(name = "variant_widths", length = 64)
+    private String variantWidths;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
     
@@ -68,6 +110,7 @@ public class PostMedia {
         this.orderIndex = orderIndex;
         this.storage = StorageProvider.R2;
         this.transcodeStatus = type == MediaType.VIDEO ? TranscodeStatus.PENDING : null;
+        this.thumbnailStatus = type == MediaType.IMAGE ? ThumbnailStatus.PENDING : null;
         this.createdAt = Instant.now();
     }
     
@@ -78,4 +121,66 @@ public class PostMedia {
     public void setDuration(Integer durationSec) {
         this.durationSec = durationSec;
     }
+    
+    /**
+     * Full object key of stored media: keys are stored as leaves under the wedding's folder, but
+     * older rows may already carry the weddingId prefix, which is not added again.
+     */
+    public static String fullKey(UUID weddingId, String storedKey) {
+        String prefix = weddingId.toString() + "/";
+        return storedKey.startsWith(prefix) ? storedKey : prefix + storedKey;
+    }
+    
+    /**
+     * Object key of the web-optimised video rendition of an original.
+     */
+    public static String renditionKey(String objectKey) {
+        int dot = objectKey.lastIndexOf('.');
+        String base = (dot > -1) ? objectKey.substring(0, dot) : objectKey;
+        return base + "_web.mp4";
+    }
+    
+    /**
+     * Object key of the thumbnail of an original at the given width; null selects the default
+     * width, which keeps the historical "_thumbnail.jpg" name.
+     */
+    public static String thumbnailKey(String objectKey, Integer width) {
+        int dot = objectKey.lastIndexOf('.');
+        String base = (dot > -1) ? objectKey.substring(0, dot) : objectKey;
+        return width == null ? base + "_thumbnail.jpg" : base + "_thumbnail_" + width + ".jpg";
+    }
+    
+    /**
+     * Height of an image of the given size scaled to targetWidth (never upscaled).
+     */
+    public static int scaledHeight(int width, int height, int targetWidth) {
+        targetWidth = Math.min(targetWidth, width);
+        return Math.max(1, (int) Math.round((double) height * targetWidth / width));
+    }
+    
+    public record Variant(Integer width, Integer height, String objectKey) {
+    }
+    
+    /**
+     * Every rendition of an image, smallest first, ending with the original. The smallest generated
+     * width is stored under the default thumbnail name. Width and height are null when unknown
+     * (media processed before dimensions were recorded).
+     */
+    public static List<Variant> variants(String objectKey, Integer width, Integer height, String variantWidths) {
+        List<Variant> variants = new ArrayList<>();
+        if (variantWidths != null && !variantWidths.isBlank()) {
+            String[] widths = variantWidths.split(",");
+            for (int i = 0; i < widths.length; i++) {
+                int variantWidth = Integer.parseInt(widths[i].trim());
+                String key = thumbnailKey(objectKey, i == 0 ? null : variantWidth);
+                if (width != null && height != null) {
+                    variants.add(new Variant(Math.min(variantWidth, width), scaledHeight(width, height, variantWidth), key));
+                } else {
+                    variants.add(new Variant(variantWidth, null, key));
+                }
+            }
+        }
+        variants.add(new Variant(width, height, objectKey));
+        return variants;
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Idempotency record of a replayed offline action; the (user_id, idempotency_key) constraint
+ * makes a second replay of the same action a no-op.
+ */
+@Entity
+@Table(name = "processed_actions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedAction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 128)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action_type", nullable = false)
+    private OfflineActionType actionType;
+
+    // Comment id for COMMENT, post id for LIKE/UNLIKE
+    @Column(name = "result_id")
+    private UUID resultId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
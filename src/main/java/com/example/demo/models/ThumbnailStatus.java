@@ -0,0 +1,7 @@
+package com.example.demo.models;
+
+public enum ThumbnailStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
@@ -36,6 +36,10 @@ public class Wedding {
     
     @Column(name = "is_active", nullable = false)
     private boolean isActive = true;
+
+    // Bumped after every committed write to this wedding's posts, members, events or venues; backs feed ETags
+    @Column(name = "content_version", nullable = false, columnDefinition = "bigint default 0")
+    private long contentVersion = 0;
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -4,10 +4,13 @@ import com.example.demo.models.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,4 +29,32 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     
     @Query("SELECT c FROM Comment c WHERE c.authorMemberId = :authorMemberId AND c.isDeleted = false ORDER BY c.createdAt DESC")
     Page<Comment> findByAuthorMemberIdAndIsDeletedFalseOrderByCreatedAtDesc(UUID authorMemberId, Pageable pageable);
+
+    // Keyset page of a thread in ascending (created_at, id) order; no COUNT query
+    @Query(value = "SELECT * FROM comments WHERE post_id = :postId AND is_deleted = false " +
+                   "ORDER BY created_at ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Comment> findThreadHead(@Param("postId") UUID postId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM comments WHERE post_id = :postId AND is_deleted = false " +
+                   "AND (created_at, id) > (:afterCreatedAt, :afterId) " +
+                   "ORDER BY created_at ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Comment> findThreadAfter(@Param("postId") UUID postId,
+                                  @Param("afterCreatedAt") Instant afterCreatedAt,
+                                  @Param("afterId") UUID afterId,
+                                  @Param("limit") int limit);
+
+    // Latest :perPost comments of each post in one statement (comment previews for a feed page)
+    @Query(value = "SELECT c.* FROM comments c " +
+                   "JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY post_id ORDER BY created_at DESC, id DESC) AS rn " +
+                   "      FROM comments WHERE post_id IN (:postIds) AND is_deleted = false) ranked ON ranked.id = c.id " +
+                   "WHERE ranked.rn <= :perPost " +
+                   "ORDER BY c.post_id, c.created_at ASC, c.id ASC", nativeQuery = true)
+    List<Comment> findLatestByPostIdIn(@Param("postIds") List<UUID> postIds, @Param("perPost") int perPost);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Comment c SET c.authorName = :authorName, c.authorAvatarUrl = :authorAvatarUrl WHERE c.authorUserId = :authorUserId")
+    int updateAuthorSnapshot(@Param("authorUserId") UUID authorUserId,
+                             @Param("authorName") String authorName,
+                             @Param("authorAvatarUrl") String authorAvatarUrl);
 }
@@ -0,0 +1,174 @@
+package com.example.demo.repositories;
+
+import com.example.demo.auth.dtos.PostDto;
+import com.example.demo.auth.dtos.PostMediaDto;
+import com.example.demo.auth.dtos.PostMediaVariantDto;
+import com.example.demo.models.MediaType;
+import com.example.demo.models.PostMedia;
+import com.example.demo.models.PostVisibility;
+import com.example.demo.models.ThumbnailStatus;
+import com.example.demo.models.TranscodeStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Feed page projection that returns posts, author name, ordered media and the viewer's like flag
+ * in a single SQL statement (Postgres JSON aggregation), mapped straight into DTOs without
+ * loading managed entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FeedProjectionRepository {
+
+    private static final String FEED_SELECT =
+            "SELECT p.id, p.wedding_id, p.author_member_id, u.name AS author_name, p.content_text, p.visibility, " +
+            "       p.media_count, p.like_count, p.comment_count, p.created_at, p.updated_at, " +
+            "       %s AS liked_by_viewer, " +
+            "       COALESCE((SELECT json_agg(json_build_object(" +
+            "                   'id', m.id, 'type', m.type, 'objectKey', m.object_key, 'mimeType', m.mime_type, " +
+            "                   'sizeBytes', m.size_bytes, 'durationSec', m.duration_sec, 'orderIndex', m.order_index, " +
+            "                   'transcodeStatus', m.transcode_status, 'createdAt', m.created_at, " +
+            "                   'thumbnailStatus', m.thumbnail_status, 'width', m.width, 'height', m.height, " +
+            "                   'variantWidths', m.variant_widths) ORDER BY m.order_index) " +
+            "                 FROM post_media m WHERE m.post_id = p.id), '[]'::json) AS media " +
+            "FROM posts p " +
+            "LEFT JOIN users u ON u.id = p.author_user_id " +
+            "WHERE p.wedding_id = :weddingId AND p.is_deleted = false ";
+
+    private static final String VIEWER_LIKED =
+            "EXISTS (SELECT 1 FROM post_likes pl JOIN wedding_members wm ON wm.id = pl.member_id " +
+            "        WHERE pl.post_id = p.id AND wm.wedding_id = p.wedding_id AND wm.user_id = :viewerUserId)";
+
+    private static final String AFTER_CURSOR = "AND (p.created_at, p.id) < (:afterCreatedAt, :afterId) ";
+
+    private static final String ORDER_AND_LIMIT = "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Loads one keyset page of a wedding feed.
+     *
+     * @param viewerUserId  null for a viewer-independent page (isLikedByUser is false)
+     * @param afterCreatedAt null for the first page
+     * @param mediaUrl      resolves (weddingId, stored object key) to a public media URL
+     */
+    public List<PostDto> findFeedPage(UUID weddingId, UUID viewerUserId, Instant afterCreatedAt, UUID afterId,
+                                      int limit, BiFunction<UUID, String, String> mediaUrl) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("weddingId", weddingId)
+                .addValue("limit", limit);
+
+        StringBuilder sql = new StringBuilder(String.format(FEED_SELECT, viewerUserId != null ? VIEWER_LIKED : "false"));
+        if (viewerUserId != null) {
+            params.addValue("viewerUserId", viewerUserId);
+        }
+        if (afterCreatedAt != null) {
+            sql.append(AFTER_CURSOR);
+            params.addValue("afterCreatedAt", Timestamp.from(afterCreatedAt));
+            params.addValue("afterId", afterId);
+        }
+        sql.append(ORDER_AND_LIMIT);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> mapRow(rs, mediaUrl));
+    }
+
+    private PostDto mapRow(ResultSet rs, BiFunction<UUID, String, String> mediaUrl) throws SQLException {
+        UUID weddingId = rs.getObject("wedding_id", UUID.class);
+        return new PostDto(
+                rs.getObject("id", UUID.class),
+                weddingId,
+                rs.getObject("author_member_id", UUID.class),
+                rs.getString("author_name"),
+                rs.getString("content_text"),
+                PostVisibility.valueOf(rs.getString("visibility")),
+                rs.getInt("media_count"),
+                parseMedia(rs.getString("media"), weddingId, mediaUrl),
+                rs.getInt("like_count"),
+                rs.getInt("comment_count"),
+                rs.getBoolean("liked_by_viewer"),
+                toInstant(rs.getTimestamp("created_at")),
+                toInstant(rs.getTimestamp("updated_at")),
+                null
+        );
+    }
+
+    private List<PostMediaDto> parseMedia(String json, UUID weddingId, BiFunction<UUID, String, String> mediaUrl) throws SQLException {
+        List<PostMediaDto> media = new ArrayList<>();
+        if (json == null) {
+            return media;
+        }
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                String objectKey = node.get("objectKey").asText();
+                ThumbnailStatus thumbnailStatus = node.hasNonNull("thumbnailStatus")
+                        ? ThumbnailStatus.valueOf(node.get("thumbnailStatus").asText()) : null;
+                TranscodeStatus transcodeStatus = node.hasNonNull("transcodeStatus")
+                        ? TranscodeStatus.valueOf(node.get("transcodeStatus").asText()) : null;
+                MediaType type = MediaType.valueOf(node.get("type").asText());
+                List<PostMediaVariantDto> variants = type == MediaType.IMAGE
+                        ? PostMedia.variants(objectKey,
+                                node.hasNonNull("width") ? node.get("width").asInt() : null,
+                                node.hasNonNull("height") ? node.get("height").asInt() : null,
+                                thumbnailStatus == ThumbnailStatus.COMPLETED && node.hasNonNull("variantWidths")
+                                        ? node.get("variantWidths").asText() : null)
+                            .stream()
+                            .map(variant -> new PostMediaVariantDto(variant.width(), variant.height(),
+                                    mediaUrl.apply(weddingId, variant.objectKey())))
+                            .toList()
+                        : List.of();
+                media.add(new PostMediaDto(
+                        UUID.fromString(node.get("id").asText()),
+                        type,
+                        mediaUrl.apply(weddingId, objectKey),
+                        node.hasNonNull("mimeType") ? node.get("mimeType").asText() : null,
+                        node.get("sizeBytes").asLong(),
+                        node.hasNonNull("durationSec") ? node.get("durationSec").asInt() : null,
+                        node.get("orderIndex").asInt(),
+                        transcodeStatus,
+                        node.hasNonNull("createdAt") ? parseJsonTimestamp(node.get("createdAt").asText()) : null,
+                        thumbnailStatus,
+                        thumbnailStatus == ThumbnailStatus.COMPLETED
+                                ? mediaUrl.apply(weddingId, PostMedia.thumbnailKey(objectKey, null)) : null,
+                        transcodeStatus == TranscodeStatus.COMPLETED
+                                ? mediaUrl.apply(weddingId, PostMedia.renditionKey(objectKey)) : null,
+                        variants
+                ));
+            }
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to parse aggregated media JSON", e);
+        }
+        return media;
+    }
+
+    private static Instant parseJsonTimestamp(String value) {
+        // timestamptz columns serialize with an offset; plain timestamp columns are stored as UTC
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
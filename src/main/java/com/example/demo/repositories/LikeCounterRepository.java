@@ -0,0 +1,69 @@
+package com.example.demo.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Like counter writes (single and batched deltas) and the repair query that rebuilds
+ * posts.like_count from post_likes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LikeCounterRepository {
+
+    private static final String APPLY_DELTA =
+            "UPDATE posts SET like_count = GREATEST(0, like_count + :delta) WHERE id = :postId";
+
+    private static final String APPLY_DELTA_RETURNING =
+            "UPDATE posts SET like_count = GREATEST(0, like_count + :delta) WHERE id = :postId RETURNING like_count";
+
+    private static final String RECONCILE =
+            "UPDATE posts p SET like_count = c.actual " +
+            "FROM (SELECT p2.id, (SELECT COUNT(*) FROM post_likes pl WHERE pl.post_id = p2.id) AS actual " +
+            "      FROM posts p2 WHERE p2.created_at >= :since) c " +
+            "WHERE p.id = c.id AND p.like_count <> c.actual ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public int[] applyDeltas(Map<UUID, Long> deltas) {
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("postId", entry.getKey())
+                        .addValue("delta", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(APPLY_DELTA, batch);
+    }
+
+    /**
+     * Applies one delta and returns the new counter, in the caller's transaction.
+     */
+    public int applyDelta(UUID postId, int delta) {
+        Integer likeCount = jdbcTemplate.queryForObject(APPLY_DELTA_RETURNING,
+                new MapSqlParameterSource().addValue("postId", postId).addValue("delta", delta), Integer.class);
+        return likeCount != null ? likeCount : 0;
+    }
+
+    /**
+     * Sets like_count to the number of post_likes rows for recent posts whose counter drifted.
+     *
+     * @param excludedPostIds posts that still have unflushed deltas and must not be touched
+     */
+    public int reconcile(Instant since, Collection<UUID> excludedPostIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("since", Timestamp.from(since));
+        String sql = RECONCILE;
+        if (!excludedPostIds.isEmpty()) {
+            sql += "AND p.id NOT IN (:excluded)";
+            params.addValue("excluded", excludedPostIds);
+        }
+        return jdbcTemplate.update(sql, params);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reference-counted content-hash index (media_contents). Acquiring is a single upsert, so concurrent
+ * finalizations of the same content in a wedding agree on one canonical object without racing on
+ * the insert. Releases decrement under the row lock and remove the entry when the last reference goes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MediaContentRepository {
+
+    private static final String ACQUIRE =
+            "INSERT INTO media_contents (id, wedding_id, content_hash, object_key, size_bytes, ref_count, created_at) " +
+            "VALUES (:id, :weddingId, :hash, :objectKey, :sizeBytes, 1, :now) " +
+            "ON CONFLICT (wedding_id, content_hash) DO UPDATE SET ref_count = media_contents.ref_count + 1 " +
+            "RETURNING object_key";
+
+    private static final String DECREMENT =
+            "UPDATE media_contents SET ref_count = ref_count - 1 " +
+            "WHERE wedding_id = :weddingId AND content_hash = :hash " +
+            "RETURNING object_key, ref_count";
+
+    private static final String DELETE_UNREFERENCED =
+            "DELETE FROM media_contents WHERE wedding_id = :weddingId AND content_hash = :hash AND ref_count <= 0";
+
+    private static final String DELETE_WEDDING =
+            "DELETE FROM media_contents WHERE wedding_id = :weddingId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds a reference to the content, registering objectKey as its canonical object if it is new to the
+     * wedding. Returns the canonical leaf key, which differs from objectKey when the content was already stored.
+     */
+    public String acquire(UUID weddingId, String hash, String objectKey, long sizeBytes) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", UUID.randomUUID())
+                .addValue("weddingId", weddingId)
+                .addValue("hash", hash)
+                .addValue("objectKey", objectKey)
+                .addValue("sizeBytes", sizeBytes)
+                .addValue("now", Timestamp.from(Instant.now()));
+        return jdbcTemplate.queryForObject(ACQUIRE, params, String.class);
+    }
+
+    /**
+     * Drops one reference. Returns the canonical leaf key when that was the last reference (the entry is
+     * then removed and the object may be deleted), otherwise null. Must run inside a transaction.
+     */
+    public String release(UUID weddingId, String hash) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("weddingId", weddingId)
+                .addValue("hash", hash);
+        List<String> freed = jdbcTemplate.query(DECREMENT, params,
+                (rs, rowNum) -> rs.getInt("ref_count") <= 0 ? rs.getString("object_key") : null);
+        if (freed.isEmpty() || freed.get(0) == null) {
+            return null;
+        }
+        jdbcTemplate.update(DELETE_UNREFERENCED, params);
+        return freed.get(0);
+    }
+
+    public int deleteWedding(UUID weddingId) {
+        return jdbcTemplate.update(DELETE_WEDDING, new MapSqlParameterSource("weddingId", weddingId));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.MediaPurgeJob;
+import com.example.demo.models.MediaPurgeStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MediaPurgeJobRepository extends JpaRepository<MediaPurgeJob, UUID> {
+
+    @Query("SELECT j.weddingId FROM MediaPurgeJob j " +
+           "WHERE j.status = com.example.demo.models.MediaPurgeStatus.PENDING " +
+           "   OR (j.status = com.example.demo.models.MediaPurgeStatus.RUNNING AND j.updatedAt < :staleBefore)")
+    List<UUID> findResumable(@Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Takes a job that is pending or whose runner stopped heartbeating; returns 1 if this caller got it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaPurgeJob j SET j.status = com.example.demo.models.MediaPurgeStatus.RUNNING, j.updatedAt = :now " +
+           "WHERE j.weddingId = :weddingId AND (j.status = com.example.demo.models.MediaPurgeStatus.PENDING " +
+           "   OR (j.status = com.example.demo.models.MediaPurgeStatus.RUNNING AND j.updatedAt < :staleBefore))")
+    int claim(@Param("weddingId") UUID weddingId, @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaPurgeJob j SET j.deletedCount = :deletedCount, j.updatedAt = :now WHERE j.weddingId = :weddingId")
+    int recordProgress(@Param("weddingId") UUID weddingId, @Param("deletedCount") long deletedCount, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaPurgeJob j SET j.status = :status, j.deletedCount = :deletedCount, j.attempts = :attempts, " +
+           "       j.lastError = :lastError, j.updatedAt = :now, j.completedAt = :completedAt WHERE j.weddingId = :weddingId")
+    int finish(@Param("weddingId") UUID weddingId, @Param("status") MediaPurgeStatus status,
+               @Param("deletedCount") long deletedCount, @Param("attempts") int attempts,
+               @Param("lastError") String lastError, @Param("now") Instant now, @Param("completedAt") Instant completedAt);
+}
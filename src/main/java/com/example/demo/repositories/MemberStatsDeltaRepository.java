@@ -0,0 +1,91 @@
+package com.example.demo.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Applies member_stats deltas for several members in one multi-row upsert. Rows are inserted in
+ * member_id order, so two transactions touching the same members (e.g. two members liking each
+ * other's posts at once) always lock them in the same order and cannot deadlock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberStatsDeltaRepository {
+
+    // The raw deltas stay in the CTE so the update branch can add them; the inserted values are clamped
+    private static final String UPSERT_HEAD =
+            "WITH d (member_id, wedding_id, posts, comments, likes_given, likes_received, media) AS (VALUES ";
+
+    private static final String UPSERT_TAIL =
+            ") INSERT INTO member_stats (member_id, wedding_id, post_count, comment_count, likes_given, likes_received, media_uploaded, updated_at) " +
+            "SELECT member_id, wedding_id, GREATEST(0, posts), GREATEST(0, comments), GREATEST(0, likes_given), " +
+            "       GREATEST(0, likes_received), GREATEST(0, media), now() " +
+            "FROM d ORDER BY member_id " +
+            "ON CONFLICT (member_id) DO UPDATE SET " +
+            "  (post_count, comment_count, likes_given, likes_received, media_uploaded, updated_at) = (" +
+            "    SELECT GREATEST(0, member_stats.post_count + d.posts), GREATEST(0, member_stats.comment_count + d.comments), " +
+            "           GREATEST(0, member_stats.likes_given + d.likes_given), GREATEST(0, member_stats.likes_received + d.likes_received), " +
+            "           GREATEST(0, member_stats.media_uploaded + d.media), now() " +
+            "    FROM d WHERE d.member_id = EXCLUDED.member_id)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Delta(UUID memberId, UUID weddingId, long posts, long comments, long likesGiven,
+                        long likesReceived, long media) {
+
+        public static Delta likesGiven(UUID memberId, UUID weddingId, long delta) {
+            return new Delta(memberId, weddingId, 0, 0, delta, 0, 0);
+        }
+
+        public static Delta likesReceived(UUID memberId, UUID weddingId, long delta) {
+            return new Delta(memberId, weddingId, 0, 0, 0, delta, 0);
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(memberId, weddingId, posts + other.posts, comments + other.comments,
+                    likesGiven + other.likesGiven, likesReceived + other.likesReceived, media + other.media);
+        }
+
+        private boolean isZero() {
+            return posts == 0 && comments == 0 && likesGiven == 0 && likesReceived == 0 && media == 0;
+        }
+    }
+
+    /**
+     * Merges the deltas per member and applies them in a single statement. Returns the number of rows written.
+     */
+    public int applyDeltas(Collection<Delta> deltas) {
+        TreeMap<UUID, Delta> byMember = new TreeMap<>();
+        for (Delta delta : deltas) {
+            byMember.merge(delta.memberId(), delta, Delta::plus);
+        }
+        byMember.values().removeIf(Delta::isZero);
+        if (byMember.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringJoiner rows = new StringJoiner(", ");
+        int i = 0;
+        for (Delta delta : byMember.values()) {
+            rows.add("(CAST(:m" + i + " AS uuid), CAST(:w" + i + " AS uuid), CAST(:p" + i + " AS bigint), CAST(:c" + i
+                    + " AS bigint), CAST(:g" + i + " AS bigint), CAST(:r" + i + " AS bigint), CAST(:u" + i + " AS bigint))");
+            params.addValue("m" + i, delta.memberId())
+                    .addValue("w" + i, delta.weddingId())
+                    .addValue("p" + i, delta.posts())
+                    .addValue("c" + i, delta.comments())
+                    .addValue("g" + i, delta.likesGiven())
+                    .addValue("r" + i, delta.likesReceived())
+                    .addValue("u" + i, delta.media());
+            i++;
+        }
+        return jdbcTemplate.update(UPSERT_HEAD + rows + UPSERT_TAIL, params);
+    }
+}
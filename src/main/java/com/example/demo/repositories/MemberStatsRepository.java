@@ -0,0 +1,52 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.MemberStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface MemberStatsRepository extends JpaRepository<MemberStats, UUID> {
+
+    // Creates the row on first activity; counters never go below zero
+    @Modifying
+    @Query(value = "INSERT INTO member_stats (member_id, wedding_id, post_count, comment_count, likes_given, likes_received, media_uploaded, updated_at) " +
+                   "VALUES (:memberId, :weddingId, GREATEST(0, :posts), GREATEST(0, :comments), GREATEST(0, :likesGiven), " +
+                   "        GREATEST(0, :likesReceived), GREATEST(0, :media), now()) " +
+                   "ON CONFLICT (member_id) DO UPDATE SET " +
+                   "  post_count = GREATEST(0, member_stats.post_count + :posts), " +
+                   "  comment_count = GREATEST(0, member_stats.comment_count + :comments), " +
+                   "  likes_given = GREATEST(0, member_stats.likes_given + :likesGiven), " +
+                   "  likes_received = GREATEST(0, member_stats.likes_received + :likesReceived), " +
+                   "  media_uploaded = GREATEST(0, member_stats.media_uploaded + :media), " +
+                   "  updated_at = now()", nativeQuery = true)
+    int applyDelta(@Param("memberId") UUID memberId,
+                   @Param("weddingId") UUID weddingId,
+                   @Param("posts") long posts,
+                   @Param("comments") long comments,
+                   @Param("likesGiven") long likesGiven,
+                   @Param("likesReceived") long likesReceived,
+                   @Param("media") long media);
+
+    // Recomputes every member of one wedding from the source tables (backfill / repair). Deleted posts
+    // count nowhere on the author's side; likes given stay counted, as likes on deleted posts are frozen
+    @Modifying
+    @Query(value = "INSERT INTO member_stats (member_id, wedding_id, post_count, comment_count, likes_given, likes_received, media_uploaded, updated_at) " +
+                   "SELECT wm.id, wm.wedding_id, " +
+                   "  (SELECT COUNT(*) FROM posts p WHERE p.author_member_id = wm.id AND p.is_deleted = false), " +
+                   "  (SELECT COUNT(*) FROM comments c WHERE c.author_member_id = wm.id AND c.is_deleted = false), " +
+                   "  (SELECT COUNT(*) FROM post_likes pl WHERE pl.member_id = wm.id), " +
+                   "  (SELECT COUNT(*) FROM post_likes pl JOIN posts p ON p.id = pl.post_id WHERE p.author_member_id = wm.id AND p.is_deleted = false), " +
+                   "  (SELECT COUNT(*) FROM post_media m JOIN posts p ON p.id = m.post_id WHERE p.author_member_id = wm.id AND p.is_deleted = false), " +
+                   "  now() " +
+                   "FROM wedding_members wm WHERE wm.wedding_id = :weddingId " +
+                   "ON CONFLICT (member_id) DO UPDATE SET " +
+                   "  post_count = EXCLUDED.post_count, comment_count = EXCLUDED.comment_count, " +
+                   "  likes_given = EXCLUDED.likes_given, likes_received = EXCLUDED.likes_received, " +
+                   "  media_uploaded = EXCLUDED.media_uploaded, updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int rebuildForWedding(@Param("weddingId") UUID weddingId);
+}
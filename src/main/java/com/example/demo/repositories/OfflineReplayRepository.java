@@ -0,0 +1,156 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.Comment;
+import com.example.demo.models.OfflineActionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Batched JDBC writes for offline action replay. Every method issues a single JDBC batch
+ * (or statement) regardless of how many actions it covers.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OfflineReplayRepository {
+
+    private static final String CLAIM_KEY =
+            "INSERT INTO processed_actions (id, user_id, idempotency_key, action_type, result_id, created_at) " +
+            "VALUES :rows " +
+            "ON CONFLICT (user_id, idempotency_key) DO NOTHING RETURNING idempotency_key";
+
+    private static final String FIND_RESULTS =
+            "SELECT idempotency_key, result_id FROM processed_actions WHERE user_id = :userId AND idempotency_key IN (:keys)";
+
+    // RETURNING reports only the rows that changed, so counters never move for a like that already existed
+    private static final String INSERT_LIKES =
+            "INSERT INTO post_likes (id, post_id, member_id, created_at) VALUES :rows " +
+            "ON CONFLICT (post_id, member_id) DO NOTHING RETURNING post_id, member_id";
+
+    private static final String DELETE_LIKES =
+            "DELETE FROM post_likes WHERE (post_id, member_id) IN (:rows) RETURNING post_id, member_id";
+
+    private static final String INSERT_COMMENT =
+            "INSERT INTO comments (id, post_id, author_member_id, author_user_id, author_name, author_avatar_url, " +
+            "                      content_text, is_deleted, created_at, updated_at) " +
+            "VALUES (:id, :postId, :authorMemberId, :authorUserId, :authorName, :authorAvatarUrl, " +
+            "        :contentText, false, :createdAt, :createdAt)";
+
+    private static final String APPLY_COMMENT_DELTA =
+            "UPDATE posts SET comment_count = GREATEST(0, comment_count + :delta) WHERE id = :postId";
+
+    private static final String PURGE_KEYS =
+            "DELETE FROM processed_actions WHERE created_at < :before";
+
+    private static final RowMapper<LikeRow> LIKE_ROW = (rs, rowNum) ->
+            new LikeRow(rs.getObject("post_id", UUID.class), rs.getObject("member_id", UUID.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record KeyClaim(String key, OfflineActionType type, UUID resultId) {
+    }
+
+    public record LikeRow(UUID postId, UUID memberId) {
+    }
+
+    /**
+     * Records idempotency keys in one multi-row insert and returns the keys that were new.
+     * Keys must be distinct; a key that was already processed is absent from the result.
+     */
+    public Set<String> claimKeys(UUID userId, List<KeyClaim> claims) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = claims.stream()
+                .map(claim -> new Object[]{UUID.randomUUID(), userId, claim.key(), claim.type().name(), claim.resultId(), now})
+                .collect(Collectors.toList());
+        return new HashSet<>(jdbcTemplate.queryForList(CLAIM_KEY,
+                new MapSqlParameterSource().addValue("rows", rows), String.class));
+    }
+
+    public Map<String, UUID> findResultIds(UUID userId, Collection<String> keys) {
+        Map<String, UUID> results = new HashMap<>();
+        if (keys.isEmpty()) {
+            return results;
+        }
+        jdbcTemplate.query(FIND_RESULTS,
+                new MapSqlParameterSource().addValue("userId", userId).addValue("keys", keys),
+                rs -> {
+                    results.put(rs.getString("idempotency_key"), rs.getObject("result_id", UUID.class));
+                });
+        return results;
+    }
+
+    /**
+     * Inserts likes in one multi-row statement and returns the rows that were actually inserted.
+     */
+    public List<LikeRow> insertLikes(List<LikeRow> likes) {
+        if (likes.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = likes.stream()
+                .map(like -> new Object[]{UUID.randomUUID(), like.postId(), like.memberId(), now})
+                .collect(Collectors.toList());
+        return jdbcTemplate.query(INSERT_LIKES, new MapSqlParameterSource().addValue("rows", rows), LIKE_ROW);
+    }
+
+    /**
+     * Deletes likes in one statement and returns the rows that actually existed.
+     */
+    public List<LikeRow> deleteLikes(List<LikeRow> likes) {
+        if (likes.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = likes.stream()
+                .map(like -> new Object[]{like.postId(), like.memberId()})
+                .collect(Collectors.toList());
+        return jdbcTemplate.query(DELETE_LIKES, new MapSqlParameterSource().addValue("rows", rows), LIKE_ROW);
+    }
+
+    public void insertComments(List<Comment> comments) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = comments.stream()
+                .map(comment -> new MapSqlParameterSource()
+                        .addValue("id", comment.getId())
+                        .addValue("postId", comment.getPostId())
+                        .addValue("authorMemberId", comment.getAuthorMemberId())
+                        .addValue("authorUserId", comment.getAuthorUserId())
+                        .addValue("authorName", comment.getAuthorName())
+                        .addValue("authorAvatarUrl", comment.getAuthorAvatarUrl())
+                        .addValue("contentText", comment.getContentText())
+                        .addValue("createdAt", Timestamp.from(comment.getCreatedAt())))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_COMMENT, batch);
+    }
+
+    public void applyCommentCountDeltas(Map<UUID, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("postId", entry.getKey())
+                        .addValue("delta", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(APPLY_COMMENT_DELTA, batch);
+    }
+
+    public int purgeKeysBefore(Instant before) {
+        return jdbcTemplate.update(PURGE_KEYS, new MapSqlParameterSource().addValue("before", Timestamp.from(before)));
+    }
+}
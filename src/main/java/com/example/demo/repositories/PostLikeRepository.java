@@ -2,6 +2,7 @@ package com.example.demo.repositories;
 
 import com.example.demo.models.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,4 +30,14 @@ public interface PostLikeRepository extends JpaRepository<PostLike, UUID> {
     List<PostLike> findByPostIdOrderByCreatedAtDesc(@Param("postId") UUID postId);
     
     void deleteByPostIdAndMemberId(UUID postId, UUID memberId);
+
+    // Single-statement toggle halves; the affected row count (0 or 1) drives the like counter delta
+    @Modifying
+    @Query(value = "INSERT INTO post_likes (id, post_id, member_id, created_at) VALUES (:id, :postId, :memberId, now()) " +
+                   "ON CONFLICT (post_id, member_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("postId") UUID postId, @Param("memberId") UUID memberId);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND member_id = :memberId", nativeQuery = true)
+    int deleteIfPresent(@Param("postId") UUID postId, @Param("memberId") UUID memberId);
 }
@@ -1,13 +1,18 @@
 package com.example.demo.repositories;
 
 import com.example.demo.models.PostMedia;
+import com.example.demo.models.ThumbnailStatus;
 import com.example.demo.models.TranscodeStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -23,6 +28,29 @@ public interface PostMediaRepository extends JpaRepository<PostMedia, UUID> {
     @Query("SELECT pm FROM PostMedia pm WHERE pm.transcodeStatus = :status")
     List<PostMedia> findByTranscodeStatus(@Param("status") TranscodeStatus status);
     
+    @Query("SELECT pm FROM PostMedia pm WHERE pm.thumbnailStatus = :status ORDER BY pm.createdAt")
+    List<PostMedia> findByThumbnailStatus(@Param("status") ThumbnailStatus status, Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostMedia pm SET pm.thumbnailStatus = :status WHERE pm.id = :id")
+    int updateThumbnailStatus(@Param("id") UUID id, @Param("status") ThumbnailStatus status);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostMedia pm SET pm.thumbnailStatus = com.example.demo.models.ThumbnailStatus.COMPLETED, " +
+           "pm.width = :width, pm.height = :height, pm.variantWidths = :variantWidths WHERE pm.id = :id")
+    int completeThumbnails(@Param("id") UUID id, @Param("width") int width, @Param("height") int height,
+                           @Param("variantWidths") String variantWidths);
+    
+    // Earliest media already pointing at a deduplicated object, to reuse its processing results
+    Optional<PostMedia> findFirstByObjectKeyAndContentHashOrderByCreatedAtAsc(String objectKey, String contentHash);
+    
+    // Whether a live post of the wedding still shows one of the keys (stored as leaf or, on older rows, prefixed)
+    @Query("SELECT COUNT(pm) > 0 FROM PostMedia pm, Post p WHERE p.id = pm.postId AND p.weddingId = :weddingId " +
+           "AND p.isDeleted = false AND pm.objectKey IN :objectKeys")
+    boolean existsLiveReference(@Param("weddingId") UUID weddingId, @Param("objectKeys") List<String> objectKeys);
+    
     @Query("SELECT COUNT(pm) FROM PostMedia pm WHERE pm.postId = :postId")
     long countByPostId(@Param("postId") UUID postId);
     
@@ -19,7 +19,7 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     Page<Post> findByWeddingIdAndIsDeletedFalseOrderByCreatedAtDesc(UUID weddingId, Pageable pageable);
     
     List<Post> findByWeddingIdAndIsDeletedFalseOrderByCreatedAtDesc(UUID weddingId);
-    
+
     @Query("SELECT p FROM Post p WHERE p.weddingId = :weddingId AND p.isDeleted = false AND p.visibility = :visibility ORDER BY p.createdAt DESC")
     Page<Post> findByWeddingIdAndVisibilityAndIsDeletedFalseOrderByCreatedAtDesc(
             @Param("weddingId") UUID weddingId, 
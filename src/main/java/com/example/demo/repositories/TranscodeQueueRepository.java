@@ -0,0 +1,89 @@
+package com.example.demo.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * post_media used as a transcode work queue shared by all nodes. Claims lock candidate rows with
+ * FOR UPDATE SKIP LOCKED, so concurrent claimers never block on or double-claim the same row, and
+ * stamp a lease; a row whose lease ran out (its node died) becomes claimable again. Completion
+ * updates are fenced on the attempt number, so a worker whose lease was taken over cannot overwrite
+ * the newer attempt's outcome.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TranscodeQueueRepository {
+
+    private static final String CLAIM =
+            "UPDATE post_media pm SET transcode_status = 'PROCESSING', " +
+            "       transcode_attempts = pm.transcode_attempts + 1, transcode_locked_until = :lockedUntil " +
+            "FROM posts p " +
+            "WHERE p.id = pm.post_id AND pm.id IN (" +
+            "    SELECT id FROM post_media " +
+            "    WHERE (transcode_status = 'PENDING' AND (transcode_next_attempt_at IS NULL OR transcode_next_attempt_at <= :now)) " +
+            "       OR (transcode_status = 'PROCESSING' AND transcode_locked_until < :now) " +
+            "    ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING pm.id, pm.post_id, p.wedding_id, pm.object_key, pm.transcode_attempts";
+
+    private static final String COMPLETE =
+            "UPDATE post_media SET transcode_status = 'COMPLETED', transcode_locked_until = NULL, " +
+            "       duration_sec = COALESCE(CAST(:durationSec AS integer), duration_sec) " +
+            "WHERE id = :id AND transcode_status = 'PROCESSING' AND transcode_attempts = :attempt";
+
+    private static final String RETRY =
+            "UPDATE post_media SET transcode_status = 'PENDING', transcode_locked_until = NULL, transcode_next_attempt_at = :nextAttemptAt " +
+            "WHERE id = :id AND transcode_status = 'PROCESSING' AND transcode_attempts = :attempt";
+
+    private static final String FAIL =
+            "UPDATE post_media SET transcode_status = 'FAILED', transcode_locked_until = NULL " +
+            "WHERE id = :id AND transcode_status = 'PROCESSING' AND transcode_attempts = :attempt";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record TranscodeJob(UUID mediaId, UUID postId, UUID weddingId, String objectKey, int attempt) {
+    }
+
+    /**
+     * Claims up to {@code limit} due jobs for this node. Runs as a single statement, so the row locks
+     * are only held for the claim itself, not for the transcode.
+     */
+    public List<TranscodeJob> claim(int limit, Duration lease) {
+        Instant now = Instant.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.from(now))
+                .addValue("lockedUntil", Timestamp.from(now.plus(lease)))
+                .addValue("limit", limit);
+        return jdbcTemplate.query(CLAIM, params, (rs, rowNum) -> new TranscodeJob(
+                rs.getObject("id", UUID.class),
+                rs.getObject("post_id", UUID.class),
+                rs.getObject("wedding_id", UUID.class),
+                rs.getString("object_key"),
+                rs.getInt("transcode_attempts")));
+    }
+
+    public boolean complete(TranscodeJob job, Integer durationSec) {
+        return jdbcTemplate.update(COMPLETE, fence(job).addValue("durationSec", durationSec)) == 1;
+    }
+
+    public boolean retryAt(TranscodeJob job, Instant nextAttemptAt) {
+        return jdbcTemplate.update(RETRY, fence(job).addValue("nextAttemptAt", Timestamp.from(nextAttemptAt))) == 1;
+    }
+
+    public boolean fail(TranscodeJob job) {
+        return jdbcTemplate.update(FAIL, fence(job)) == 1;
+    }
+
+    private static MapSqlParameterSource fence(TranscodeJob job) {
+        return new MapSqlParameterSource()
+                .addValue("id", job.mediaId())
+                .addValue("attempt", job.attempt());
+    }
+}
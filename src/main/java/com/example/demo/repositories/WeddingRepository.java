@@ -1,8 +1,15 @@
 package com.example.demo.repositories;
 
 import com.example.demo.models.Wedding;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +22,22 @@ public interface WeddingRepository extends JpaRepository<Wedding, UUID> {
     Optional<Wedding> findByCodeAndIsActive(String code, boolean isActive);
     
     boolean existsByCode(String code);
-}
+
+    @Query("SELECT w.id FROM Wedding w ORDER BY w.id")
+    Slice<UUID> findAllIds(Pageable pageable);
+
+    @Query("SELECT w.contentVersion FROM Wedding w WHERE w.id = :weddingId")
+    Optional<Long> findContentVersion(@Param("weddingId") UUID weddingId);
+
+    // Runs in its own short transaction so the row lock is not held by the caller's transaction
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE Wedding w SET w.contentVersion = w.contentVersion + 1 WHERE w.id = :weddingId")
+    int bumpContentVersion(@Param("weddingId") UUID weddingId);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE Wedding w SET w.contentVersion = w.contentVersion + 1 " +
+           "WHERE w.id IN (SELECT wm.weddingId FROM WeddingMember wm WHERE wm.userId = :userId)")
+    int bumpContentVersionForUser(@Param("userId") UUID userId);
+}
\ No newline at end of file
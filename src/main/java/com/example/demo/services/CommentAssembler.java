@@ -0,0 +1,91 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.CommentDto;
+import com.example.demo.models.Comment;
+import com.example.demo.models.User;
+import com.example.demo.models.WeddingMember;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.repositories.WeddingMemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link CommentDto}s for a page of comments. Comments carry a denormalized author
+ * snapshot, so a page normally needs no further queries; comments written before the snapshot
+ * existed are resolved with one member query and one user query for the whole page.
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentAssembler {
+
+    private final WeddingMemberRepository weddingMemberRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Assembles DTOs in the same order as the input comments.
+     */
+    public List<CommentDto> assemble(List<Comment> comments) {
+        List<CommentDto> result = new ArrayList<>(comments.size());
+        if (comments.isEmpty()) {
+            return result;
+        }
+
+        Map<UUID, User> legacyAuthors = loadLegacyAuthors(comments);
+
+        for (Comment comment : comments) {
+            String authorName = comment.getAuthorName();
+            String authorAvatarUrl = comment.getAuthorAvatarUrl();
+            if (comment.getAuthorUserId() == null) {
+                User user = legacyAuthors.get(comment.getAuthorMemberId());
+                authorName = user != null ? user.getName() : null;
+                authorAvatarUrl = user != null ? user.getAvatarUrl() : null;
+            }
+            result.add(new CommentDto(
+                    comment.getId(),
+                    comment.getPostId(),
+                    comment.getAuthorMemberId(),
+                    authorName,
+                    authorAvatarUrl,
+                    comment.getContentText(),
+                    comment.getCreatedAt(),
+                    comment.getUpdatedAt()
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Resolves authors of comments without a snapshot, keyed by author member id.
+     */
+    private Map<UUID, User> loadLegacyAuthors(List<Comment> comments) {
+        List<UUID> memberIds = comments.stream()
+                .filter(comment -> comment.getAuthorUserId() == null)
+                .map(Comment::getAuthorMemberId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (memberIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<WeddingMember> members = weddingMemberRepository.findAllById(memberIds);
+        List<UUID> userIds = members.stream()
+                .map(WeddingMember::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<UUID, User> userMap = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return members.stream()
+                .filter(member -> userMap.containsKey(member.getUserId()))
+                .collect(Collectors.toMap(WeddingMember::getId, member -> userMap.get(member.getUserId())));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.services;
+
+import com.example.demo.events.UserProfileUpdatedEvent;
+import com.example.demo.repositories.CommentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Refreshes the author snapshot on a user's comments after their name or avatar changes.
+ * Runs off the request thread; until it finishes, comments show the previous snapshot.
+ */
+@Slf4j
+@Component
+public class CommentAuthorPropagator {
+
+    private final CommentRepository commentRepository;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "comment-author-propagator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CommentAuthorPropagator(CommentRepository commentRepository) {
+        this.commentRepository = commentRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+        executor.execute(() -> {
+            try {
+                int updated = commentRepository.updateAuthorSnapshot(event.userId(), event.name(), event.avatarUrl());
+                log.debug("Refreshed author snapshot on {} comments of user {}", updated, event.userId());
+            } catch (Exception e) {
+                log.warn("Failed to refresh comment author snapshot for user {}", event.userId(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
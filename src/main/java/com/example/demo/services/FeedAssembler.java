@@ -0,0 +1,227 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.CommentDto;
+import com.example.demo.auth.dtos.PostDto;
+import com.example.demo.auth.dtos.PostMediaDto;
+import com.example.demo.auth.dtos.PostMediaVariantDto;
+import com.example.demo.config.AwsS3Properties;
+import com.example.demo.config.MediaStoreProperties;
+import com.example.demo.models.Comment;
+import com.example.demo.models.MediaType;
+import com.example.demo.models.Post;
+import com.example.demo.models.PostLike;
+import com.example.demo.models.PostMedia;
+import com.example.demo.models.ThumbnailStatus;
+import com.example.demo.models.TranscodeStatus;
+import com.example.demo.models.User;
+import com.example.demo.models.WeddingMember;
+import com.example.demo.repositories.CommentRepository;
+import com.example.demo.repositories.FeedProjectionRepository;
+import com.example.demo.repositories.PostLikeRepository;
+import com.example.demo.repositories.PostMediaRepository;
+import com.example.demo.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Builds feed {@link PostDto}s for a page of posts using a fixed number of batch queries
+ * (authors, media, viewer likes), independent of page size. There is no per-post fallback:
+ * every post is assembled from the batch-loaded maps in a single pass.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedAssembler {
+
+    private final UserRepository userRepository;
+    private final PostMediaRepository postMediaRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final WeddingService weddingService;
+    private final AwsS3Properties awsS3Properties;
+    private final MediaStoreProperties mediaStoreProperties;
+    private final FeedProjectionRepository feedProjectionRepository;
+    private final LikeCounterBuffer likeCounterBuffer;
+    private final CommentRepository commentRepository;
+    private final CommentAssembler commentAssembler;
+
+    /**
+     * Assembles DTOs in the same order as the input posts.
+     */
+    public List<PostDto> assemble(List<Post> posts, UUID userId, UUID weddingId) {
+        return new ArrayList<>(assembleById(posts, userId, weddingId).values());
+    }
+
+    /**
+     * Assembles DTOs keyed by post id; iteration order follows the input posts.
+     */
+    public Map<UUID, PostDto> assembleById(List<Post> posts, UUID userId, UUID weddingId) {
+        if (posts.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        List<UUID> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        return buildById(posts, likedPostIds(postIds, userId, weddingId));
+    }
+
+    /**
+     * Assembles viewer-independent DTOs (isLikedByUser is false), suitable for caching.
+     */
+    public List<PostDto> assembleNeutral(List<Post> posts) {
+        return new ArrayList<>(buildById(posts, Set.of()).values());
+    }
+
+    /**
+     * Copies viewer-independent DTOs and overlays the viewer's like flags with one query.
+     */
+    public List<PostDto> withViewerLikes(List<PostDto> neutral, UUID userId, UUID weddingId) {
+        if (neutral.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UUID> postIds = neutral.stream().map(PostDto::getId).collect(Collectors.toList());
+        Set<UUID> liked = likedPostIds(postIds, userId, weddingId);
+        List<PostDto> result = new ArrayList<>(neutral.size());
+        for (PostDto dto : neutral) {
+            PostDto copy = FeedCache.copyOf(dto);
+            copy.setLikedByUser(liked.contains(dto.getId()));
+            result.add(copy);
+        }
+        return result;
+    }
+
+    /**
+     * Attaches the latest {@code perPost} comments to each post with one windowed query for the page.
+     * Mutates the given DTOs, so callers must pass their own copies (never cached instances).
+     */
+    public void attachCommentPreviews(List<PostDto> posts, int perPost) {
+        if (posts.isEmpty() || perPost <= 0) {
+            return;
+        }
+        List<UUID> postIds = posts.stream().map(PostDto::getId).collect(Collectors.toList());
+        List<Comment> latest = commentRepository.findLatestByPostIdIn(postIds, perPost);
+        Map<UUID, List<CommentDto>> byPost = commentAssembler.assemble(latest).stream()
+                .collect(Collectors.groupingBy(CommentDto::getPostId));
+        for (PostDto post : posts) {
+            post.setCommentPreview(byPost.getOrDefault(post.getId(), List.of()));
+        }
+    }
+
+    /**
+     * Resolves the viewer's member once, then loads their likes for the whole page.
+     */
+    public Set<UUID> likedPostIds(List<UUID> postIds, UUID userId, UUID weddingId) {
+        Set<UUID> likedPostIds = new HashSet<>();
+        if (userId == null || postIds.isEmpty()) {
+            return likedPostIds;
+        }
+        Optional<WeddingMember> viewer = weddingService.getWeddingMember(userId, weddingId);
+        viewer.ifPresent(member -> postLikeRepository.findPostIdsByMemberIdAndPostIdIn(member.getId(), postIds)
+                .stream()
+                .map(PostLike::getPostId)
+                .forEach(likedPostIds::add));
+        return likedPostIds;
+    }
+
+    private Map<UUID, PostDto> buildById(List<Post> posts, Set<UUID> likedPostIds) {
+        Map<UUID, PostDto> result = new LinkedHashMap<>();
+        if (posts.isEmpty()) {
+            return result;
+        }
+
+        List<UUID> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        List<UUID> authorUserIds = posts.stream()
+                .map(Post::getAuthorUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        // Batch load all author users directly using denormalized author_user_id
+        Map<UUID, User> userMap = userRepository.findAllById(authorUserIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+
+        // Batch load all media for all posts, already ordered by post and order index
+        Map<UUID, List<PostMedia>> mediaMap = postMediaRepository.findByPostIdInOrderByPostIdAscOrderIndexAsc(postIds).stream()
+                .collect(Collectors.groupingBy(PostMedia::getPostId));
+
+        for (Post post : posts) {
+            User authorUser = post.getAuthorUserId() != null ? userMap.get(post.getAuthorUserId()) : null;
+            List<PostMediaDto> mediaDtos = mediaMap.getOrDefault(post.getId(), List.of()).stream()
+                    .map(media -> toPostMediaDto(media, post.getWeddingId()))
+                    .collect(Collectors.toList());
+
+            result.put(post.getId(), new PostDto(
+                    post.getId(),
+                    post.getWeddingId(),
+                    post.getAuthorMemberId(),
+                    authorUser != null ? authorUser.getName() : null,
+                    post.getContentText(),
+                    post.getVisibility(),
+                    post.getMediaCount(),
+                    mediaDtos,
+                    likeCounterBuffer.withPending(post.getId(), post.getLikeCount()),
+                    post.getCommentCount(),
+                    likedPostIds.contains(post.getId()),
+                    post.getCreatedAt(),
+                    post.getUpdatedAt(),
+                    null
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Loads a keyset feed page in a single SQL statement via the feed projection.
+     * Pass a null viewer for a viewer-independent (cacheable) page.
+     */
+    public List<PostDto> loadFeedPage(UUID weddingId, UUID viewerUserId, Instant afterCreatedAt, UUID afterId, int limit) {
+        List<PostDto> posts = feedProjectionRepository.findFeedPage(weddingId, viewerUserId, afterCreatedAt, afterId, limit, this::mediaUrl);
+        if (likeCounterBuffer.isEnabled()) {
+            posts.forEach(dto -> dto.setLikeCount(likeCounterBuffer.withPending(dto.getId(), dto.getLikeCount())));
+        }
+        return posts;
+    }
+
+    public PostMediaDto toPostMediaDto(PostMedia media, UUID weddingId) {
+        return new PostMediaDto(
+                media.getId(),
+                media.getType(),
+                mediaUrl(weddingId, media.getObjectKey()),
+                media.getMimeType(),
+                media.getSizeBytes(),
+                media.getDurationSec(),
+                media.getOrderIndex(),
+                media.getTranscodeStatus(),
+                media.getCreatedAt(),
+                media.getThumbnailStatus(),
+                media.getThumbnailStatus() == ThumbnailStatus.COMPLETED
+                        ? mediaUrl(weddingId, PostMedia.thumbnailKey(media.getObjectKey(), null))
+                        : null,
+                media.getTranscodeStatus() == TranscodeStatus.COMPLETED
+                        ? mediaUrl(weddingId, PostMedia.renditionKey(media.getObjectKey()))
+                        : null,
+                media.getType() == MediaType.IMAGE
+                        ? variants(weddingId, media.getObjectKey(), media.getWidth(), media.getHeight(),
+                                   media.getThumbnailStatus() == ThumbnailStatus.COMPLETED ? media.getVariantWidths() : null)
+                        : List.of()
+        );
+    }
+
+    private List<PostMediaVariantDto> variants(UUID weddingId, String objectKey, Integer width, Integer height, String variantWidths) {
+        return PostMedia.variants(objectKey, width, height, variantWidths).stream()
+                .map(variant -> new PostMediaVariantDto(variant.width(), variant.height(), mediaUrl(weddingId, variant.objectKey())))
+                .toList();
+    }
+
+    public String mediaUrl(UUID weddingId, String storedKey) {
+        return mediaStoreProperties.publicUrlOr(awsS3Properties.getPublicUrl()) + "/" + PostMedia.fullKey(weddingId, storedKey);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.PostDto;
+import com.example.demo.config.FeedCacheProperties;
+import com.example.demo.events.CommentCreatedEvent;
+import com.example.demo.events.PostCreatedEvent;
+import com.example.demo.events.PostDeletedEvent;
+import com.example.demo.events.PostLikeToggledEvent;
+import com.example.demo.events.PostMediaProcessedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of the first feed pages of each wedding.
+ * Entries hold the viewer-independent part of each PostDto (isLikedByUser is always false);
+ * callers overlay the viewer's likes at read time. New posts invalidate the wedding's pages,
+ * likes and comments patch the cached counters after the writing transaction commits.
+ * Hit/miss/eviction metrics are published under cache name "feed".
+ */
+@Slf4j
+@Component
+public class FeedCache {
+
+    private final FeedCacheProperties properties;
+    private final Cache<FeedPageKey, CachedFeedPage> cache;
+    // Bumped on every write to a wedding; a load that raced with a write is not stored.
+    // Idle weddings expire like their pages, so the map does not grow with every wedding ever read
+    private final Cache<UUID, AtomicLong> generations;
+
+    public record FeedPageKey(UUID weddingId, String variant) {
+    }
+
+    public record CachedFeedPage(List<PostDto> posts, long totalElements, String nextCursor, boolean hasNext) {
+    }
+
+    public FeedCache(FeedCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "feed");
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(properties.getTtlSeconds()))
+                .build();
+    }
+
+    public boolean isCacheable(int page, int size) {
+        return properties.isEnabled() && page >= 0 && page < properties.getMaxPages()
+                && size > 0 && size <= properties.getMaxPageSize();
+    }
+
+    /**
+     * Returns the cached page or loads it. The loader must return viewer-independent DTOs.
+     */
+    public CachedFeedPage getOrLoad(UUID weddingId, String variant, Supplier<CachedFeedPage> loader) {
+        FeedPageKey key = new FeedPageKey(weddingId, variant);
+        CachedFeedPage cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        AtomicLong counter = generation(weddingId);
+        long generationAtLoad = counter.get();
+        CachedFeedPage loaded = loader.get();
+        // A counter that expired mid-load is replaced by a new one, which also counts as a write
+        if (generation(weddingId) == counter && counter.get() == generationAtLoad) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidateWedding(UUID weddingId) {
+        generation(weddingId).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.weddingId().equals(weddingId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        invalidateWedding(event.weddingId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostDeleted(PostDeletedEvent event) {
+        invalidateWedding(event.weddingId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostMediaProcessed(PostMediaProcessedEvent event) {
+        invalidateWedding(event.weddingId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommentCreated(CommentCreatedEvent event) {
+        patchCounts(event.weddingId(), event.postId(), 0, 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostLikeToggled(PostLikeToggledEvent event) {
+        patchCounts(event.weddingId(), event.postId(), event.liked() ? 1 : -1, 0);
+    }
+
+    private void patchCounts(UUID weddingId, UUID postId, int likeDelta, int commentDelta) {
+        generation(weddingId).incrementAndGet();
+        for (FeedPageKey key : cache.asMap().keySet()) {
+            if (!key.weddingId().equals(weddingId)) continue;
+            // Copy-on-write so concurrent readers never see a half-patched page
+            cache.asMap().computeIfPresent(key, (k, page) -> {
+                boolean touched = false;
+                List<PostDto> patched = new ArrayList<>(page.posts().size());
+                for (PostDto dto : page.posts()) {
+                    if (dto.getId().equals(postId)) {
+                        PostDto copy = copyOf(dto);
+                        copy.setLikeCount(Math.max(0, copy.getLikeCount() + likeDelta));
+                        copy.setCommentCount(Math.max(0, copy.getCommentCount() + commentDelta));
+                        patched.add(copy);
+                        touched = true;
+                    } else {
+                        patched.add(dto);
+                    }
+                }
+                return touched ? new CachedFeedPage(patched, page.totalElements(), page.nextCursor(), page.hasNext()) : page;
+            });
+        }
+    }
+
+    private AtomicLong generation(UUID weddingId) {
+        return generations.get(weddingId, id -> new AtomicLong());
+    }
+
+    static PostDto copyOf(PostDto dto) {
+        return new PostDto(
+                dto.getId(),
+                dto.getWeddingId(),
+                dto.getAuthorMemberId(),
+                dto.getAuthorName(),
+                dto.getContentText(),
+                dto.getVisibility(),
+                dto.getMediaCount(),
+                dto.getMedia(),
+                dto.getLikeCount(),
+                dto.getCommentCount(),
+                dto.isLikedByUser(),
+                dto.getCreatedAt(),
+                dto.getUpdatedAt(),
+                dto.getCommentPreview()
+        );
+    }
+}
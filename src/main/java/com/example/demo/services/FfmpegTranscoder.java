@@ -0,0 +1,99 @@
+package com.example.demo.services;
+
+import com.example.demo.config.TranscodeProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transcodes with an external ffmpeg process to H.264/AAC MP4, capped at transcode.maxWidth,
+ * with the moov atom up front so playback starts before the download finishes.
+ */
+@Slf4j
+public class FfmpegTranscoder implements Transcoder {
+
+    private static final Pattern DURATION = Pattern.compile("Duration: (\\d+):(\\d{2}):(\\d{2})\\.(\\d+)");
+
+    private final TranscodeProperties properties;
+    private volatile Boolean available;
+
+    public FfmpegTranscoder(TranscodeProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (available == null) {
+            try {
+                Process process = new ProcessBuilder(properties.getFfmpegPath(), "-version")
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                available = process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+            } catch (IOException e) {
+                available = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public Result transcode(Path source, Path target) throws IOException {
+        Path logFile = Files.createTempFile("ffmpeg-", ".log");
+        try {
+            Process process = new ProcessBuilder(List.of(
+                    properties.getFfmpegPath(), "-hide_banner", "-nostdin", "-y",
+                    "-i", source.toString(),
+                    "-vf", "scale='min(" + properties.getMaxWidth() + ",iw)':-2",
+                    "-c:v", "libx264", "-preset", "veryfast", "-crf", "23", "-pix_fmt", "yuv420p",
+                    "-c:a", "aac", "-b:a", "128k",
+                    "-movflags", "+faststart",
+                    target.toString()))
+                    .redirectErrorStream(true)
+                    .redirectOutput(logFile.toFile())
+                    .start();
+            boolean finished;
+            try {
+                finished = process.waitFor(properties.getTimeoutMinutes(), TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IOException("Transcode interrupted", e);
+            }
+            if (!finished) {
+                process.destroyForcibly();
+                throw new IOException("ffmpeg timed out after " + properties.getTimeoutMinutes() + " minutes");
+            }
+            String output = Files.readString(logFile, StandardCharsets.UTF_8);
+            if (process.exitValue() != 0) {
+                throw new IOException("ffmpeg exited with " + process.exitValue() + ": " + tail(output));
+            }
+            return new Result(parseDuration(output));
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    private static Integer parseDuration(String output) {
+        Matcher m = DURATION.matcher(output);
+        if (!m.find()) {
+            return null;
+        }
+        int seconds = Integer.parseInt(m.group(1)) * 3600 + Integer.parseInt(m.group(2)) * 60 + Integer.parseInt(m.group(3));
+        return m.group(4).charAt(0) >= '5' ? seconds + 1 : seconds;
+    }
+
+    private static String tail(String output) {
+        return output.length() <= 500 ? output : output.substring(output.length() - 500);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.demo.services;
+
+import com.example.demo.config.LikeCounterProperties;
+import com.example.demo.events.PostDeletedEvent;
+import com.example.demo.events.PostLikeToggledEvent;
+import com.example.demo.repositories.LikeCounterRepository;
+import com.example.demo.repositories.MemberStatsDeltaRepository;
+import com.example.demo.repositories.MemberStatsDeltaRepository.Delta;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind aggregation of like-count deltas (likes.write-behind.enabled).
+ * Toggles add to a per-post {@link LongAdder} instead of updating the hot posts row, and a
+ * scheduled flush applies the accumulated deltas in one batched UPDATE. Reads add the pending
+ * delta to the stored counter. A crash loses at most one flush interval of counter updates
+ * (the post_likes rows themselves are written synchronously); the reconciliation job rebuilds
+ * drifted counters from post_likes on startup and periodically. Pending deltas are per node.
+ * The member_stats likes_given/likes_received deltas are buffered the same way, so a toggle does
+ * not write the author's stats row either; they are flushed in one upsert ordered by member id.
+ * <p>
+ * The flush runs on its own scheduler thread so a slow flush neither waits behind nor delays the
+ * other {@code @Scheduled} jobs. Reconciliation is only safe on a single node: it cannot see other
+ * nodes' unflushed deltas, so multi-node deployments must set likes.write-behind.reconcile=false.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeCounterBuffer {
+
+    private final LikeCounterProperties properties;
+    private final LikeCounterRepository likeCounterRepository;
+    private final MemberStatsDeltaRepository memberStatsDeltaRepository;
+
+    private final ConcurrentMap<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    // Cells dropped by the previous flush; a writer that raced with the removal is drained from here next time
+    private Map<UUID, LongAdder> retired = new HashMap<>();
+    private final ConcurrentMap<UUID, StatCells> pendingStats = new ConcurrentHashMap<>();
+    private Map<UUID, StatCells> retiredStats = new HashMap<>();
+    private ScheduledExecutorService flusher;
+
+    private record StatCells(UUID weddingId, LongAdder likesGiven, LongAdder likesReceived) {
+
+        StatCells(UUID weddingId) {
+            this(weddingId, new LongAdder(), new LongAdder());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void add(UUID postId, long delta) {
+        pending.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+    }
+
+    private void addStats(UUID memberId, UUID weddingId, long likesGiven, long likesReceived) {
+        StatCells cells = pendingStats.computeIfAbsent(memberId, id -> new StatCells(weddingId));
+        cells.likesGiven().add(likesGiven);
+        cells.likesReceived().add(likesReceived);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostLikeToggled(PostLikeToggledEvent event) {
+        if (isEnabled()) {
+            int delta = event.liked() ? 1 : -1;
+            add(event.postId(), delta);
+            addStats(event.memberId(), event.weddingId(), delta, 0);
+            addStats(event.authorMemberId(), event.weddingId(), 0, delta);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostDeleted(PostDeletedEvent event) {
+        if (isEnabled() && event.likeCount() > 0) {
+            // The author's likes_received for this post may still be partly pending here
+            addStats(event.authorMemberId(), event.weddingId(), 0, -event.likeCount());
+        }
+    }
+
+    public long pendingDelta(UUID postId) {
+        LongAdder cell = pending.get(postId);
+        return cell != null ? cell.sum() : 0L;
+    }
+
+    public int withPending(UUID postId, int storedCount) {
+        return (int) Math.max(0, storedCount + pendingDelta(postId));
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        if (!isEnabled()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushIntervalMillis();
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // An escaping exception would cancel the periodic task
+                log.warn("Like flush failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void flush() {
+        flushStats();
+        if (pending.isEmpty() && retired.isEmpty()) {
+            return;
+        }
+        Map<UUID, Long> deltas = new HashMap<>();
+        retired.forEach((postId, cell) -> drainInto(deltas, postId, cell));
+
+        Map<UUID, LongAdder> nowRetired = new HashMap<>();
+        for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+            // Drop cells that stayed idle for a whole interval so the map does not grow without bound
+            if (drainInto(deltas, entry.getKey(), entry.getValue()) == 0 && pending.remove(entry.getKey(), entry.getValue())) {
+                nowRetired.put(entry.getKey(), entry.getValue());
+            }
+        }
+        retired = nowRetired;
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            likeCounterRepository.applyDeltas(deltas);
+            log.debug("Flushed like deltas for {} posts", deltas.size());
+        } catch (RuntimeException e) {
+            // Put the deltas back; they are retried on the next flush
+            deltas.forEach(this::add);
+            log.warn("Failed to flush like deltas for {} posts; will retry", deltas.size(), e);
+        }
+    }
+
+    private void flushStats() {
+        if (pendingStats.isEmpty() && retiredStats.isEmpty()) {
+            return;
+        }
+        List<Delta> deltas = new ArrayList<>();
+        retiredStats.forEach((memberId, cells) -> drainStatsInto(deltas, memberId, cells));
+
+        Map<UUID, StatCells> nowRetired = new HashMap<>();
+        for (Map.Entry<UUID, StatCells> entry : pendingStats.entrySet()) {
+            if (!drainStatsInto(deltas, entry.getKey(), entry.getValue())
+                    && pendingStats.remove(entry.getKey(), entry.getValue())) {
+                nowRetired.put(entry.getKey(), entry.getValue());
+            }
+        }
+        retiredStats = nowRetired;
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            memberStatsDeltaRepository.applyDeltas(deltas);
+            log.debug("Flushed like stats for {} members", deltas.size());
+        } catch (RuntimeException e) {
+            deltas.forEach(d -> addStats(d.memberId(), d.weddingId(), d.likesGiven(), d.likesReceived()));
+            log.warn("Failed to flush like stats for {} members; will retry", deltas.size(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (isEnabled() && properties.isReconcile()) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${likes.write-behind.reconcileIntervalMillis:600000}",
+               initialDelayString = "${likes.write-behind.reconcileIntervalMillis:600000}")
+    public void scheduledReconcile() {
+        if (isEnabled() && properties.isReconcile()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Repairs counters that drifted from post_likes (e.g. deltas lost in a crash). Single-node only.
+     * Runs under the flush lock right after a flush, so no local delta is drained while the counts
+     * are rebuilt; posts with local deltas are skipped and picked up by a later run. A toggle that
+     * commits while the statement runs can still be counted twice, which the next run repairs.
+     */
+    public synchronized int reconcile() {
+        flush();
+        Instant since = Instant.now().minus(Duration.ofHours(properties.getReconcileLookbackHours()));
+        int repaired = likeCounterRepository.reconcile(since, new HashSet<>(pending.keySet()));
+        if (repaired > 0) {
+            log.info("Reconciled like counts of {} posts", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Runs a recount of like-derived counters (e.g. the member_stats rebuild) under the flush lock right
+     * after a flush, so deltas buffered before it are applied first instead of being added on top of the
+     * recount later. A toggle that commits while the recount runs can still be counted twice, which the
+     * next recount repairs.
+     */
+    public synchronized <T> T afterFlush(Supplier<T> recount) {
+        flush();
+        return recount.get();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    private static long drainInto(Map<UUID, Long> deltas, UUID postId, LongAdder cell) {
+        long delta = cell.sum();
+        if (delta != 0) {
+            // Subtract exactly what was read so concurrent increments are kept for the next flush
+            cell.add(-delta);
+            deltas.merge(postId, delta, Long::sum);
+        }
+        return delta;
+    }
+
+    private static boolean drainStatsInto(List<Delta> deltas, UUID memberId, StatCells cells) {
+        long given = cells.likesGiven().sum();
+        long received = cells.likesReceived().sum();
+        if (given == 0 && received == 0) {
+            return false;
+        }
+        cells.likesGiven().add(-given);
+        cells.likesReceived().add(-received);
+        deltas.add(new Delta(memberId, cells.weddingId(), 0, 0, given, received, 0));
+        return true;
+    }
+}
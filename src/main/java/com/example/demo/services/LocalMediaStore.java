@@ -0,0 +1,215 @@
+package com.example.demo.services;
+
+import com.example.demo.models.StorageProvider;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * MediaStore on the local filesystem, one file per object key under a root directory.
+ * Writes go to a temp file in the target directory and are moved into place atomically, so readers
+ * never see a partial object. Objects are served by LocalMediaController.
+ */
+@Slf4j
+public class LocalMediaStore implements MediaStore {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final Path root;
+
+    public LocalMediaStore(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+        log.info("Local media store at {}", this.root);
+    }
+
+    /**
+     * Resolves a key to its file; keys that would escape the root are rejected.
+     */
+    public Path pathOf(String objectKey) {
+        Path path = root.resolve(objectKey).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key");
+        }
+        return path;
+    }
+
+    public static String etag(long size, long lastModifiedMillis) {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModifiedMillis) + "\"";
+    }
+
+    public static String contentType(Path file) {
+        String type = null;
+        try {
+            type = Files.probeContentType(file);
+        } catch (IOException ignored) {
+        }
+        if (type == null) {
+            type = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+        }
+        return type != null ? type : "application/octet-stream";
+    }
+
+    @Override
+    public StorageProvider provider() {
+        return StorageProvider.LOCAL;
+    }
+
+    @Override
+    public InputStream open(String objectKey) throws IOException {
+        return Files.newInputStream(pathOf(objectKey));
+    }
+
+    /**
+     * Ranges are ignored: local files are served whole (LocalMediaController handles ranges itself).
+     */
+    @Override
+    public Download get(String objectKey, String range) throws IOException {
+        Path path = pathOf(objectKey);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new Download(Files.newInputStream(path), attributes.size(), 0, attributes.size(), contentType(path),
+                    etag(attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (java.nio.file.NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String objectKey, byte[] content, String contentType) throws IOException {
+        Path target = pathOf(objectKey);
+        Path temp = tempFileFor(target);
+        try {
+            Files.write(temp, content);
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void putFile(String objectKey, Path file, String contentType) throws IOException {
+        Path target = pathOf(objectKey);
+        Path temp = tempFileFor(target);
+        try {
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public long putStream(String objectKey, String contentType, InputStream body, long maxBytes) throws IOException {
+        Path target = pathOf(objectKey);
+        Path temp = tempFileFor(target);
+        try {
+            long total = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new IllegalArgumentException("File size exceeds maximum allowed size of " + (maxBytes / (1024 * 1024)) + "MB");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            moveIntoPlace(temp, target);
+            return total;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Map<String, StoredObject> head(Collection<String> objectKeys) {
+        Map<String, StoredObject> found = new HashMap<>();
+        for (String key : objectKeys) {
+            Path path = pathOf(key);
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    found.put(key, new StoredObject(key, attributes.size(), contentType(path),
+                            etag(attributes.size(), attributes.lastModifiedTime().toMillis())));
+                }
+            } catch (java.nio.file.NoSuchFileException ignored) {
+                // absent from the result
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Pages through keys in lexical order; the token is the last key of the previous page,
+     * so deleting listed keys between pages is safe.
+     */
+    @Override
+    public Page list(String prefix, String token) {
+        Path dir = pathOf(prefix);
+        if (!Files.isDirectory(dir)) {
+            return new Page(List.of(), null);
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<String> keys = files.filter(Files::isRegularFile)
+                    .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                    .filter(key -> !key.contains("/.upload-"))
+                    .filter(key -> token == null || key.compareTo(token) > 0)
+                    .sorted()
+                    .limit(PAGE_SIZE + 1)
+                    .toList();
+            if (keys.size() > PAGE_SIZE) {
+                List<String> page = keys.subList(0, PAGE_SIZE);
+                return new Page(page, page.get(PAGE_SIZE - 1));
+            }
+            return new Page(keys, null);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int delete(List<String> objectKeys) {
+        int deleted = 0;
+        for (String key : objectKeys) {
+            try {
+                if (Files.deleteIfExists(pathOf(key))) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete {}: {}", key, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    private static Path tempFileFor(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.services;
+
+import com.example.demo.config.MediaDedupProperties;
+import com.example.demo.config.ThumbnailProperties;
+import com.example.demo.events.MediaObjectsOrphanedEvent;
+import com.example.demo.models.PostMedia;
+import com.example.demo.repositories.MediaContentRepository;
+import com.example.demo.repositories.PostMediaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Content-addressed deduplication of wedding media. Post finalization hashes each upload (SHA-256)
+ * and acquires a reference in the wedding's hash index; a duplicate upload is pointed at the object
+ * already stored and its own copy is deleted after commit. Releasing the last reference deletes the
+ * object and its derived thumbnails and rendition.
+ * <p>
+ * Media finalized before deduplication carries no hash and is not counted in the index, yet a new
+ * post may point at the same object (finalization accepts any key under the wedding's prefix). An
+ * object is therefore only ever deleted here when no live post of the wedding still shows it.
+ */
+@Slf4j
+@Service
+public class MediaDedupService {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final MediaDedupProperties properties;
+    private final ThumbnailProperties thumbnailProperties;
+    private final MediaContentRepository mediaContentRepository;
+    private final PostMediaRepository postMediaRepository;
+    private final MediaStore mediaStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService hashers;
+
+    public MediaDedupService(MediaDedupProperties properties, ThumbnailProperties thumbnailProperties,
+                             MediaContentRepository mediaContentRepository, PostMediaRepository postMediaRepository,
+                             MediaStore mediaStore, ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.thumbnailProperties = thumbnailProperties;
+        this.mediaContentRepository = mediaContentRepository;
+        this.postMediaRepository = postMediaRepository;
+        this.mediaStore = mediaStore;
+        this.eventPublisher = eventPublisher;
+        this.hashers = Executors.newFixedThreadPool(properties.getHashThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "media-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Hashes the given full object keys in parallel. Objects that cannot be read are left out
+     * (and simply not deduplicated).
+     */
+    public Map<String, String> hash(Collection<String> objectKeys) {
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        for (String objectKey : objectKeys) {
+            futures.computeIfAbsent(objectKey, key -> CompletableFuture.supplyAsync(() -> sha256(key), hashers));
+        }
+        Map<String, String> hashes = new HashMap<>();
+        futures.forEach((key, future) -> {
+            String hash = future.join();
+            if (hash != null) {
+                hashes.put(key, hash);
+            }
+        });
+        return hashes;
+    }
+
+    /**
+     * Adds a reference to the content for a new PostMedia and returns the leaf key it should point at.
+     * When the content is already stored under another key, the just-uploaded copy is deleted after commit.
+     * Must run in the transaction that saves the PostMedia.
+     */
+    public String acquire(UUID weddingId, String hash, String leafKey, long sizeBytes) {
+        String canonical = mediaContentRepository.acquire(weddingId, hash, leafKey, sizeBytes);
+        if (!canonical.equals(leafKey)) {
+            if (isShown(weddingId, leafKey)) {
+                // Not a fresh upload but an object an earlier post already shows; only the new post is redirected
+                log.info("Media {} of wedding {} duplicates {}; keeping it for existing posts", leafKey, weddingId, canonical);
+                return canonical;
+            }
+            log.info("Media {} of wedding {} duplicates {}; dropping the new copy", leafKey, weddingId, canonical);
+            String duplicateKey = PostMedia.fullKey(weddingId, leafKey);
+            // Include a client-uploaded thumbnail of the copy, if any
+            eventPublisher.publishEvent(new MediaObjectsOrphanedEvent(
+                    List.of(duplicateKey, PostMedia.thumbnailKey(duplicateKey, null))));
+        }
+        return canonical;
+    }
+
+    /**
+     * Drops the reference held by a PostMedia that is being removed; call it after its post is marked
+     * deleted. When it was the last one, the object and its derived keys are deleted after commit, unless
+     * a live post without a content hash still shows the object. Media without a content hash is not
+     * reference-counted and is left alone.
+     */
+    @Transactional
+    public void release(UUID weddingId, PostMedia media) {
+        if (media.getContentHash() == null) {
+            return;
+        }
+        String freed = mediaContentRepository.release(weddingId, media.getContentHash());
+        if (freed == null) {
+            return;
+        }
+        if (isShown(weddingId, freed)) {
+            log.info("Media {} of wedding {} is still shown by posts finalized before deduplication; keeping it",
+                    freed, weddingId);
+            return;
+        }
+        String objectKey = PostMedia.fullKey(weddingId, freed);
+        List<String> keys = new ArrayList<>();
+        keys.add(objectKey);
+        keys.add(PostMedia.thumbnailKey(objectKey, null));
+        thumbnailProperties.getWidths().forEach(width -> keys.add(PostMedia.thumbnailKey(objectKey, width)));
+        keys.add(PostMedia.renditionKey(objectKey));
+        eventPublisher.publishEvent(new MediaObjectsOrphanedEvent(keys));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMediaObjectsOrphaned(MediaObjectsOrphanedEvent event) {
+        try {
+            int deleted = mediaStore.delete(event.objectKeys());
+            log.debug("Deleted {} orphaned media objects", deleted);
+        } catch (Exception e) {
+            // Orphans are unreferenced; a leftover only costs storage until the wedding is purged
+            log.warn("Failed to delete orphaned media {}: {}", event.objectKeys(), e.getMessage());
+        }
+    }
+
+    private boolean isShown(UUID weddingId, String leafKey) {
+        return postMediaRepository.existsLiveReference(weddingId,
+                List.of(leafKey, PostMedia.fullKey(weddingId, leafKey)));
+    }
+
+    private String sha256(String objectKey) {
+        try (DigestInputStream in = new DigestInputStream(mediaStore.open(objectKey), MessageDigest.getInstance("SHA-256"))) {
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            while (in.read(buffer) != -1) {
+                // Reading drives the digest
+            }
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not hash media {}; it will not be deduplicated: {}", objectKey, e.getMessage());
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+}
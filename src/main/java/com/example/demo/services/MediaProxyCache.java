@@ -0,0 +1,263 @@
+package com.example.demo.services;
+
+import com.example.demo.config.MediaProxyProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache of media objects for the authenticated media proxy. The index lives in a Caffeine
+ * cache weighted by file size, so the directory stays under maxBytes; evicted files are deleted.
+ * Concurrent misses on the same key share a single upstream fetch. Object keys are immutable, so
+ * entries never need revalidation. A miss costs one GetObject (body and metadata together). Range
+ * requests that miss are passed through to the store as ranged reads, so seeking in an uncached
+ * video never waits for the whole object; the full object is fetched into the cache in the
+ * background. Objects over maxObjectBytes are remembered with their size after the first read, so
+ * later requests skip the store instead of starting and aborting a GetObject each time, and ranges
+ * of them are always passed through. Hit/miss/eviction metrics are published under cache name "media-proxy".
+ */
+@Slf4j
+@Component
+public class MediaProxyCache {
+
+    private static final int TOO_LARGE_ENTRIES = 10_000;
+
+    private final MediaStore mediaStore;
+    private final MediaProxyProperties properties;
+    private final Path cacheDir;
+    private final Cache<String, CachedObject> cache;
+    // Sizes of objects too large to cache; keys are immutable, so an entry never goes stale
+    private final Cache<String, Long> tooLarge;
+    // Fetches in progress on this node, keyed by object key
+    private final ConcurrentMap<String, CompletableFuture<CachedObject>> loading = new ConcurrentHashMap<>();
+    private final Set<String> prefetching = ConcurrentHashMap.newKeySet();
+    private final ExecutorService prefetcher;
+
+    public record CachedObject(Path file, long sizeBytes, String contentType, String eTag, long cachedAt) {
+    }
+
+    /**
+     * A cached object with a channel opened on its file. Holding the channel keeps the bytes readable
+     * even if the entry is evicted (and the file unlinked) while the response is being written.
+     */
+    public record OpenObject(CachedObject object, FileChannel channel) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public MediaProxyCache(MediaStore mediaStore, MediaProxyProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.mediaStore = mediaStore;
+        this.properties = properties;
+        this.cacheDir = Path.of(properties.getCacheDir()).toAbsolutePath().normalize();
+        Files.createDirectories(cacheDir);
+        // The index is not persisted, so files from a previous run would never be evicted
+        clearDirectory();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, CachedObject value) -> (int) Math.min(Integer.MAX_VALUE, value.sizeBytes()))
+                .removalListener((String key, CachedObject value, RemovalCause cause) -> {
+                    if (value != null) {
+                        deleteQuietly(value.file());
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "media-proxy");
+        this.tooLarge = Caffeine.newBuilder()
+                .maximumSize(TOO_LARGE_ENTRIES)
+                .build();
+        this.prefetcher = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "media-proxy-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the object open for reading, fetching it from the media store on a miss.
+     * Returns null when the object does not exist or is larger than maxObjectBytes.
+     */
+    public OpenObject open(String objectKey) throws IOException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            CachedObject object = get(objectKey);
+            if (object == null) {
+                return null;
+            }
+            OpenObject open = openFile(objectKey, object);
+            if (open != null) {
+                return open;
+            }
+        }
+        throw new IOException("Cached media evicted repeatedly: " + objectKey);
+    }
+
+    /**
+     * Returns the object open for reading if it is cached, without fetching it.
+     */
+    public OpenObject openIfCached(String objectKey) throws IOException {
+        CachedObject hit = cache.getIfPresent(objectKey);
+        return hit != null ? openFile(objectKey, hit) : null;
+    }
+
+    /**
+     * Reads one range of an uncached object straight from the store and, unless the object is known to
+     * be too large to cache, starts caching the whole object in the background, so later requests are
+     * served from disk. The caller closes the download.
+     */
+    public MediaStore.Download readRange(String objectKey, String range) throws IOException {
+        if (!isTooLarge(objectKey)) {
+            prefetch(objectKey);
+        }
+        return mediaStore.get(objectKey, range);
+    }
+
+    private void prefetch(String objectKey) {
+        if (!prefetching.add(objectKey)) {
+            return;
+        }
+        try {
+            prefetcher.execute(() -> {
+                try {
+                    get(objectKey);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Background fetch of media {} failed", objectKey, e);
+                } finally {
+                    prefetching.remove(objectKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            prefetching.remove(objectKey);
+            throw e;
+        }
+    }
+
+    private boolean isTooLarge(String objectKey) {
+        // Compared against the current limit, so raising maxObjectBytes lets the object be cached again
+        Long sizeBytes = tooLarge.getIfPresent(objectKey);
+        return sizeBytes != null && sizeBytes > properties.getMaxObjectBytes();
+    }
+
+    private OpenObject openFile(String objectKey, CachedObject object) throws IOException {
+        try {
+            return new OpenObject(object, FileChannel.open(object.file(), StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and open; drop the stale entry so the next lookup fetches again
+            cache.asMap().remove(objectKey, object);
+            return null;
+        }
+    }
+
+    private CachedObject get(String objectKey) throws IOException {
+        CachedObject hit = cache.getIfPresent(objectKey);
+        if (hit != null || isTooLarge(objectKey)) {
+            return hit;
+        }
+        CompletableFuture<CachedObject> mine = new CompletableFuture<>();
+        CompletableFuture<CachedObject> existing = loading.putIfAbsent(objectKey, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // Another loader may have finished between the lookup above and claiming the fetch
+            CachedObject loaded = cache.getIfPresent(objectKey);
+            if (loaded == null) {
+                loaded = fetch(objectKey);
+                if (loaded != null) {
+                    cache.put(objectKey, loaded);
+                }
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(objectKey, mine);
+        }
+    }
+
+    private CachedObject fetch(String objectKey) throws IOException {
+        // One GetObject: the response carries the size and metadata, no separate HEAD
+        try (MediaStore.Download download = mediaStore.get(objectKey, null)) {
+            if (download == null) {
+                return null;
+            }
+            if (download.sizeBytes() > properties.getMaxObjectBytes()) {
+                log.debug("Media {} ({} bytes) exceeds the proxy cache object limit", objectKey, download.sizeBytes());
+                tooLarge.put(objectKey, download.sizeBytes());
+                return null;
+            }
+            Path temp = Files.createTempFile(cacheDir, ".fetch-", ".tmp");
+            try {
+                long size = Files.copy(download.body(), temp, StandardCopyOption.REPLACE_EXISTING);
+                Path target = cacheDir.resolve(UUID.randomUUID() + ".bin");
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Cached media {} ({} bytes)", objectKey, size);
+                return new CachedObject(target, size, download.contentType(), download.eTag(), System.currentTimeMillis());
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(temp);
+                throw e;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    private static CachedObject await(CompletableFuture<CachedObject> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private void clearDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(Files::isRegularFile).forEach(MediaProxyCache::deleteQuietly);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached media file {}", file, e);
+        }
+    }
+}
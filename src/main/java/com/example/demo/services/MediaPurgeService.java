@@ -0,0 +1,208 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.MediaPurgeStatusDto;
+import com.example.demo.config.MediaPurgeProperties;
+import com.example.demo.events.WeddingDeletedEvent;
+import com.example.demo.models.MediaPurgeJob;
+import com.example.demo.models.MediaPurgeStatus;
+import com.example.demo.models.MemberRole;
+import com.example.demo.repositories.MediaContentRepository;
+import com.example.demo.repositories.MediaPurgeJobRepository;
+import com.example.demo.repositories.WeddingMemberRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes a deleted wedding's stored media in the background. The listing is paged with continuation
+ * tokens and every page (up to 1000 keys) goes out as one batch delete (DeleteObjects on S3), with up to
+ * media-purge.parallelism batches in flight. Progress (deleted count) is heartbeated into
+ * media_purge_jobs; after a restart or a stalled node the job is claimed again and simply re-lists
+ * the prefix, which by then only contains what is left. Failed runs are retried up to
+ * media-purge.maxAttempts.
+ */
+@Slf4j
+@Service
+public class MediaPurgeService {
+
+    private final MediaPurgeProperties properties;
+    private final MediaPurgeJobRepository jobRepository;
+    private final WeddingMemberRepository weddingMemberRepository;
+    private final MediaStore mediaStore;
+    private final MediaContentRepository mediaContentRepository;
+    // One runner thread per purge; the DeleteObjects fan-out uses a separate pool
+    private final ExecutorService runners;
+    private final ExecutorService deleters;
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    public MediaPurgeService(MediaPurgeProperties properties, MediaPurgeJobRepository jobRepository,
+                             WeddingMemberRepository weddingMemberRepository, MediaStore mediaStore,
+                             MediaContentRepository mediaContentRepository) {
+        this.properties = properties;
+        this.jobRepository = jobRepository;
+        this.weddingMemberRepository = weddingMemberRepository;
+        this.mediaStore = mediaStore;
+        this.mediaContentRepository = mediaContentRepository;
+        this.runners = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "media-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deleters = Executors.newFixedThreadPool(properties.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "media-purge-delete");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records the job in the deleting transaction, so a wedding is never deactivated without its purge.
+     */
+    @EventListener
+    public void onWeddingDeleted(WeddingDeletedEvent event) {
+        Instant now = Instant.now();
+        MediaPurgeJob job = jobRepository.findById(event.weddingId()).orElseGet(MediaPurgeJob::new);
+        job.setWeddingId(event.weddingId());
+        job.setStatus(MediaPurgeStatus.PENDING);
+        job.setAttempts(0);
+        job.setLastError(null);
+        job.setCompletedAt(null);
+        job.setUpdatedAt(now);
+        if (job.getCreatedAt() == null) {
+            job.setCreatedAt(now);
+        }
+        jobRepository.save(job);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void startAfterCommit(WeddingDeletedEvent event) {
+        start(event.weddingId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        resumePending();
+    }
+
+    @Scheduled(fixedDelayString = "${media-purge.resumeIntervalMillis:300000}",
+               initialDelayString = "${media-purge.resumeIntervalMillis:300000}")
+    public void resumePending() {
+        for (UUID weddingId : jobRepository.findResumable(staleBefore())) {
+            start(weddingId);
+        }
+    }
+
+    public MediaPurgeStatusDto getStatus(UUID userId, UUID weddingId) {
+        boolean admin = weddingMemberRepository.findByWeddingIdAndUserId(weddingId, userId)
+                .map(member -> member.getRole() == MemberRole.ADMIN)
+                .orElse(false);
+        if (!admin) {
+            throw new IllegalArgumentException("User is not authorized to view this wedding");
+        }
+        MediaPurgeJob job = jobRepository.findById(weddingId)
+                .orElseThrow(() -> new IllegalArgumentException("No media purge for this wedding"));
+        return new MediaPurgeStatusDto(job.getWeddingId(), job.getStatus(), job.getDeletedCount(), job.getAttempts(),
+                job.getLastError(), job.getUpdatedAt(), job.getCompletedAt());
+    }
+
+    private void start(UUID weddingId) {
+        if (!running.add(weddingId)) {
+            return;
+        }
+        try {
+            runners.execute(() -> {
+                try {
+                    if (jobRepository.claim(weddingId, Instant.now(), staleBefore()) == 1) {
+                        purge(weddingId);
+                    }
+                } finally {
+                    running.remove(weddingId);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.remove(weddingId);
+            throw e;
+        }
+    }
+
+    private void purge(UUID weddingId) {
+        MediaPurgeJob job = jobRepository.findById(weddingId).orElseThrow();
+        long deleted = job.getDeletedCount();
+        int failedKeys = 0;
+        Deque<CompletableFuture<int[]>> inFlight = new ArrayDeque<>();
+        try {
+            String token = null;
+            do {
+                MediaStore.Page page = mediaStore.list(weddingId + "/", token);
+                List<String> keys = page.keys();
+                if (!keys.isEmpty()) {
+                    if (inFlight.size() >= properties.getParallelism()) {
+                        int[] result = inFlight.removeFirst().join();
+                        deleted += result[0];
+                        failedKeys += result[1];
+                        jobRepository.recordProgress(weddingId, deleted, Instant.now());
+                    }
+                    inFlight.addLast(CompletableFuture.supplyAsync(() -> {
+                        int ok = mediaStore.delete(keys);
+                        return new int[]{ok, keys.size() - ok};
+                    }, deleters));
+                }
+                token = page.nextToken();
+            } while (token != null);
+            while (!inFlight.isEmpty()) {
+                int[] result = inFlight.removeFirst().join();
+                deleted += result[0];
+                failedKeys += result[1];
+            }
+            if (failedKeys > 0) {
+                throw new IllegalStateException(failedKeys + " objects could not be deleted");
+            }
+            // The dedup index would otherwise point at objects that no longer exist
+            mediaContentRepository.deleteWedding(weddingId);
+            jobRepository.finish(weddingId, MediaPurgeStatus.COMPLETED, deleted, job.getAttempts(), null,
+                    Instant.now(), Instant.now());
+            log.info("Purged {} media objects of wedding {}", deleted, weddingId);
+        } catch (Exception e) {
+            // Let in-flight batches settle so the recorded count is accurate
+            for (CompletableFuture<int[]> batch : inFlight) {
+                try {
+                    deleted += batch.join()[0];
+                } catch (Exception ignored) {
+                }
+            }
+            int attempts = job.getAttempts() + 1;
+            MediaPurgeStatus status = attempts < properties.getMaxAttempts() ? MediaPurgeStatus.PENDING : MediaPurgeStatus.FAILED;
+            String error = e.getMessage() != null && e.getMessage().length() > 1000 ? e.getMessage().substring(0, 1000) : e.getMessage();
+            jobRepository.finish(weddingId, status, deleted, attempts, error, Instant.now(), null);
+            log.error("Media purge of wedding {} failed (attempt {}, {} deleted so far); now {}", weddingId, attempts, deleted, status, e);
+        }
+    }
+
+    private Instant staleBefore() {
+        return Instant.now().minus(Duration.ofMinutes(properties.getStaleAfterMinutes()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted purges are RUNNING with a stale heartbeat and get resumed by the next sweep
+        runners.shutdownNow();
+        deleters.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.services;
+
+import com.example.demo.models.StorageProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object storage for media originals and their derived objects (thumbnails, renditions).
+ * Keys are full object keys ("<weddingId>/<leaf>"). The active implementation is chosen with
+ * media.store (s3 or local); presigned uploads remain S3-only, other upload paths go through here.
+ */
+public interface MediaStore {
+
+    record StoredObject(String objectKey, long sizeBytes, String contentType, String eTag) {
+    }
+
+    /**
+     * One listing page; nextToken is null on the last page.
+     */
+    record Page(List<String> keys, String nextToken) {
+    }
+
+    /**
+     * An object body together with the metadata returned by the same read. {@code start} and
+     * {@code length} describe the bytes in {@code body}; {@code sizeBytes} is the size of the whole
+     * object. A length of 0 with a range requested means the range could not be satisfied.
+     */
+    record Download(InputStream body, long sizeBytes, long start, long length, String contentType, String eTag)
+            implements Closeable {
+
+        public boolean partial() {
+            return length < sizeBytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    StorageProvider provider();
+
+    InputStream open(String objectKey) throws IOException;
+
+    /**
+     * Reads an object and its metadata with a single request. {@code range} is a single HTTP
+     * "bytes=" range, or null for the whole object; a store that cannot read ranges returns the
+     * whole object. Returns null when the object does not exist.
+     */
+    Download get(String objectKey, String range) throws IOException;
+
+    void put(String objectKey, byte[] content, String contentType) throws IOException;
+
+    void putFile(String objectKey, Path file, String contentType) throws IOException;
+
+    /**
+     * Writes a stream of unknown length and returns its size. Throws IllegalArgumentException,
+     * leaving nothing behind, when the stream exceeds maxBytes.
+     */
+    long putStream(String objectKey, String contentType, InputStream body, long maxBytes) throws IOException;
+
+    /**
+     * Metadata of the given keys, looked up concurrently where the store supports it.
+     * Keys that do not exist are absent from the result.
+     */
+    Map<String, StoredObject> head(Collection<String> objectKeys);
+
+    Page list(String prefix, String token);
+
+    /**
+     * Deletes up to 1000 keys and returns how many were deleted.
+     */
+    int delete(List<String> objectKeys);
+}
@@ -0,0 +1,114 @@
+package com.example.demo.services;
+
+import com.example.demo.config.MemberStatsProperties;
+import com.example.demo.models.MemberStats;
+import com.example.demo.repositories.MemberStatsDeltaRepository;
+import com.example.demo.repositories.MemberStatsDeltaRepository.Delta;
+import com.example.demo.repositories.MemberStatsRepository;
+import com.example.demo.repositories.WeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains the member_stats aggregate. The record* methods must be called inside the
+ * transaction of the write they count, so the counters commit or roll back with it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MemberStatsService {
+
+    private final MemberStatsRepository memberStatsRepository;
+    private final MemberStatsDeltaRepository memberStatsDeltaRepository;
+    private final LikeCounterBuffer likeCounterBuffer;
+    private final WeddingRepository weddingRepository;
+    private final MemberStatsProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public void recordPost(UUID memberId, UUID weddingId, int mediaCount) {
+        memberStatsRepository.applyDelta(memberId, weddingId, 1, 0, 0, 0, mediaCount);
+    }
+
+    /**
+     * Takes a deleted post out of its author's counters, including the likes it had received. Under
+     * write-behind that part goes through LikeCounterBuffer, like the likes themselves.
+     */
+    public void recordPostDeleted(UUID memberId, UUID weddingId, int mediaCount, long likeCount) {
+        long likesReceived = likeCounterBuffer.isEnabled() ? 0 : -likeCount;
+        memberStatsRepository.applyDelta(memberId, weddingId, -1, 0, 0, likesReceived, -mediaCount);
+    }
+
+    public void recordComment(UUID memberId, UUID weddingId) {
+        memberStatsRepository.applyDelta(memberId, weddingId, 0, 1, 0, 0, 0);
+    }
+
+    /**
+     * Writes both sides of a like in one upsert ordered by member id, so concurrent likes between the
+     * same two members lock the rows in the same order. With write-behind enabled the author's
+     * likes_received row would be a hot row in every toggle, so the deltas are left to LikeCounterBuffer.
+     */
+    public void recordLike(UUID likerMemberId, UUID authorMemberId, UUID weddingId, int delta) {
+        if (delta == 0 || likeCounterBuffer.isEnabled()) {
+            return;
+        }
+        memberStatsDeltaRepository.applyDeltas(List.of(
+                Delta.likesGiven(likerMemberId, weddingId, delta),
+                Delta.likesReceived(authorMemberId, weddingId, delta)));
+    }
+
+    /**
+     * Applies the deltas of several members in a single upsert ordered by member id.
+     */
+    public void recordDeltas(Collection<Delta> deltas) {
+        if (!deltas.isEmpty()) {
+            memberStatsDeltaRepository.applyDeltas(deltas);
+        }
+    }
+
+    public Optional<MemberStats> getStats(UUID memberId) {
+        return memberStatsRepository.findById(memberId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (properties.isRebuildOnStartup()) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Backfills member_stats for every wedding, streaming wedding ids in batches.
+     * Each wedding is recomputed in its own short transaction.
+     */
+    public long rebuildAll() {
+        long members = 0;
+        int weddings = 0;
+        Slice<UUID> batch = weddingRepository.findAllIds(PageRequest.of(0, properties.getRebuildBatchSize()));
+        while (true) {
+            for (UUID weddingId : batch) {
+                // Buffered like deltas are applied first, so the recount does not pick them up a second time
+                Integer rebuilt = likeCounterBuffer.afterFlush(() ->
+                        transactionTemplate.execute(status -> memberStatsRepository.rebuildForWedding(weddingId)));
+                members += rebuilt != null ? rebuilt : 0;
+                weddings++;
+            }
+            if (!batch.hasNext()) {
+                break;
+            }
+            batch = weddingRepository.findAllIds(batch.nextPageable());
+        }
+        log.info("Rebuilt member stats for {} members across {} weddings", members, weddings);
+        return members;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.OfflineActionDto;
+import com.example.demo.auth.dtos.OfflineActionResultDto;
+import com.example.demo.config.OfflineReplayProperties;
+import com.example.demo.events.CommentCreatedEvent;
+import com.example.demo.events.PostLikeToggledEvent;
+import com.example.demo.models.Comment;
+import com.example.demo.models.MemberStatus;
+import com.example.demo.models.OfflineActionType;
+import com.example.demo.models.Post;
+import com.example.demo.models.User;
+import com.example.demo.models.WeddingMember;
+import com.example.demo.repositories.LikeCounterRepository;
+import com.example.demo.repositories.MemberStatsDeltaRepository.Delta;
+import com.example.demo.repositories.OfflineReplayRepository;
+import com.example.demo.repositories.OfflineReplayRepository.KeyClaim;
+import com.example.demo.repositories.OfflineReplayRepository.LikeRow;
+import com.example.demo.repositories.PostRepository;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.repositories.WeddingMemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Replays actions that clients queued while offline (likes, unlikes, comments) in one transaction.
+ * Posts and memberships are loaded once for the whole batch, idempotency keys are
+ * claimed with a single insert statement (so concurrent replays of the same queue apply each action
+ * once), and all writes go out as JDBC batches. Per-item results are returned in request order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OfflineReplayService {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String REJECTED = "REJECTED";
+
+    private final OfflineReplayProperties properties;
+    private final OfflineReplayRepository offlineReplayRepository;
+    private final PostRepository postRepository;
+    private final WeddingMemberRepository weddingMemberRepository;
+    private final UserRepository userRepository;
+    private final LikeCounterRepository likeCounterRepository;
+    private final LikeCounterBuffer likeCounterBuffer;
+    private final MemberStatsService memberStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * A validated action that is about to be applied.
+     */
+    private record Accepted(int index, OfflineActionDto action, Post post, WeddingMember member, UUID resultId) {
+    }
+
+    @Transactional
+    public List<OfflineActionResultDto> replay(UUID userId, List<OfflineActionDto> actions) {
+        if (actions.size() > properties.getMaxActions()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxActions() + " actions per batch");
+        }
+        OfflineActionResultDto[] results = new OfflineActionResultDto[actions.size()];
+
+        // One query for all referenced posts, one for all of the user's memberships
+        Map<UUID, Post> posts = postRepository.findAllById(parsePostIds(actions)).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        Map<UUID, WeddingMember> membersByWedding = weddingMemberRepository
+                .findByUserIdAndStatus(userId, MemberStatus.ACCEPTED).stream()
+                .collect(Collectors.toMap(WeddingMember::getWeddingId, Function.identity(), (a, b) -> a));
+
+        List<Accepted> accepted = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            OfflineActionDto action = actions.get(i);
+            String error = validate(action, posts);
+            Post post = error == null ? posts.get(UUID.fromString(action.getPostId())) : null;
+            WeddingMember member = post != null ? membersByWedding.get(post.getWeddingId()) : null;
+            if (error == null && member == null) {
+                error = "User is not a member of this wedding";
+            }
+            if (error != null) {
+                results[i] = new OfflineActionResultDto(action.getIdempotencyKey(), REJECTED, null, error);
+                continue;
+            }
+            UUID resultId = action.getType() == OfflineActionType.COMMENT ? UUID.randomUUID() : post.getId();
+            accepted.add(new Accepted(i, action, post, member, resultId));
+        }
+
+        List<Accepted> toApply = claimKeys(userId, accepted, results);
+        List<Delta> stats = new ArrayList<>(applyLikes(toApply, results));
+        stats.addAll(applyComments(userId, toApply, results));
+        // All member_stats changes of the batch in one upsert, ordered by member id
+        memberStatsService.recordDeltas(stats);
+
+        log.info("Replayed {} offline actions for user {} ({} applied)", actions.size(), userId, toApply.size());
+        return List.of(results);
+    }
+
+    /**
+     * Claims idempotency keys in one statement; actions whose key was already processed (by an
+     * earlier replay or earlier in this batch) are reported as duplicates with the original
+     * result id and are not applied again.
+     */
+    private List<Accepted> claimKeys(UUID userId, List<Accepted> accepted, OfflineActionResultDto[] results) {
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+        Map<String, Accepted> firstByKey = new LinkedHashMap<>();
+        List<Accepted> duplicates = new ArrayList<>();
+        for (Accepted action : accepted) {
+            if (firstByKey.putIfAbsent(action.action().getIdempotencyKey(), action) != null) {
+                duplicates.add(action);
+            }
+        }
+        List<KeyClaim> claims = firstByKey.values().stream()
+                .map(a -> new KeyClaim(a.action().getIdempotencyKey(), a.action().getType(), a.resultId()))
+                .collect(Collectors.toList());
+        Set<String> claimed = offlineReplayRepository.claimKeys(userId, claims);
+
+        List<Accepted> fresh = new ArrayList<>();
+        for (Accepted action : firstByKey.values()) {
+            if (claimed.contains(action.action().getIdempotencyKey())) {
+                fresh.add(action);
+            } else {
+                duplicates.add(action);
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            Map<String, UUID> previous = offlineReplayRepository.findResultIds(userId,
+                    duplicates.stream().map(a -> a.action().getIdempotencyKey()).collect(Collectors.toSet()));
+            for (Accepted duplicate : duplicates) {
+                String key = duplicate.action().getIdempotencyKey();
+                results[duplicate.index()] = new OfflineActionResultDto(key, DUPLICATE, previous.get(key), null);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Folds the ordered LIKE/UNLIKE actions into one final state per post and writes them. Counter
+     * deltas come from the rows the insert and delete actually changed, so a like that already
+     * existed (or was removed concurrently) never moves a counter. Returns the member_stats deltas.
+     */
+    private List<Delta> applyLikes(List<Accepted> toApply, OfflineActionResultDto[] results) {
+        Map<LikeRow, Accepted> lastActionByLike = new LinkedHashMap<>();
+        for (Accepted like : toApply) {
+            if (like.action().getType() == OfflineActionType.COMMENT) {
+                continue;
+            }
+            lastActionByLike.put(new LikeRow(like.post().getId(), like.member().getId()), like);
+            results[like.index()] = new OfflineActionResultDto(like.action().getIdempotencyKey(), APPLIED, like.resultId(), null);
+        }
+        if (lastActionByLike.isEmpty()) {
+            return List.of();
+        }
+
+        List<LikeRow> inserts = new ArrayList<>();
+        List<LikeRow> deletes = new ArrayList<>();
+        lastActionByLike.forEach((row, last) ->
+                (last.action().getType() == OfflineActionType.LIKE ? inserts : deletes).add(row));
+
+        Map<LikeRow, Integer> changed = new LinkedHashMap<>();
+        offlineReplayRepository.insertLikes(inserts).forEach(row -> changed.put(row, 1));
+        offlineReplayRepository.deleteLikes(deletes).forEach(row -> changed.put(row, -1));
+        if (changed.isEmpty()) {
+            return List.of();
+        }
+
+        // Sorted by post id so concurrent replays lock the like counters in the same order
+        Map<UUID, Long> likeDeltas = new TreeMap<>();
+        changed.forEach((row, delta) -> likeDeltas.merge(row.postId(), (long) delta, Long::sum));
+        if (!likeCounterBuffer.isEnabled()) {
+            likeCounterRepository.applyDeltas(likeDeltas);
+        }
+
+        List<Delta> stats = new ArrayList<>();
+        for (Map.Entry<LikeRow, Integer> entry : changed.entrySet()) {
+            Accepted like = lastActionByLike.get(entry.getKey());
+            Post post = like.post();
+            int delta = entry.getValue();
+            if (!likeCounterBuffer.isEnabled()) {
+                // With write-behind the like stats are folded in by LikeCounterBuffer from the event below
+                stats.add(Delta.likesGiven(like.member().getId(), post.getWeddingId(), delta));
+                stats.add(Delta.likesReceived(post.getAuthorMemberId(), post.getWeddingId(), delta));
+            }
+            int likeCount = post.getLikeCount() + likeDeltas.get(post.getId()).intValue();
+            eventPublisher.publishEvent(new PostLikeToggledEvent(post.getWeddingId(), post.getId(), like.member().getId(),
+                    post.getAuthorMemberId(), delta > 0, likeCounterBuffer.withPending(post.getId(), likeCount)));
+        }
+        return stats;
+    }
+
+    /**
+     * Inserts the replayed comments and returns their member_stats deltas.
+     */
+    private List<Delta> applyComments(UUID userId, List<Accepted> toApply, OfflineActionResultDto[] results) {
+        List<Accepted> commentActions = toApply.stream()
+                .filter(a -> a.action().getType() == OfflineActionType.COMMENT)
+                .collect(Collectors.toList());
+        if (commentActions.isEmpty()) {
+            return List.of();
+        }
+
+        Optional<User> author = userRepository.findById(userId);
+        // Consecutive timestamps keep replayed comments in queue order within a thread
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<Comment> comments = new ArrayList<>(commentActions.size());
+        // Sorted by post id for the same reason as the like deltas: posts rows are locked in one order
+        Map<UUID, Integer> commentDeltas = new TreeMap<>();
+        List<Delta> stats = new ArrayList<>();
+        for (int i = 0; i < commentActions.size(); i++) {
+            Accepted action = commentActions.get(i);
+            Comment comment = new Comment(action.post().getId(), action.member().getId(), action.action().getContentText().trim());
+            comment.setId(action.resultId());
+            comment.setAuthorUserId(userId);
+            comment.setAuthorName(author.map(User::getName).orElse(null));
+            comment.setAuthorAvatarUrl(author.map(User::getAvatarUrl).orElse(null));
+            comment.setCreatedAt(base.plus(i, ChronoUnit.MICROS));
+            comments.add(comment);
+            commentDeltas.merge(comment.getPostId(), 1, Integer::sum);
+            stats.add(new Delta(action.member().getId(), action.post().getWeddingId(), 0, 1, 0, 0, 0));
+            results[action.index()] = new OfflineActionResultDto(action.action().getIdempotencyKey(), APPLIED, action.resultId(), null);
+        }
+
+        offlineReplayRepository.insertComments(comments);
+        offlineReplayRepository.applyCommentCountDeltas(commentDeltas);
+
+        for (Accepted action : commentActions) {
+            eventPublisher.publishEvent(new CommentCreatedEvent(action.post().getWeddingId(), action.post().getId(), action.resultId()));
+        }
+        return stats;
+    }
+
+    private static String validate(OfflineActionDto action, Map<UUID, Post> posts) {
+        if (action.getIdempotencyKey() == null || action.getIdempotencyKey().isBlank()) {
+            return "Idempotency key is required";
+        }
+        if (action.getType() == null) {
+            return "Action type is required";
+        }
+        UUID postId = parseUuid(action.getPostId());
+        if (postId == null) {
+            return "Invalid post id";
+        }
+        Post post = posts.get(postId);
+        if (post == null || post.isDeleted()) {
+            return "Post not found";
+        }
+        if (action.getType() == OfflineActionType.COMMENT
+                && (action.getContentText() == null || action.getContentText().isBlank())) {
+            return "Content text is required";
+        }
+        return null;
+    }
+
+    private static Set<UUID> parsePostIds(List<OfflineActionDto> actions) {
+        return actions.stream()
+                .map(action -> parseUuid(action.getPostId()))
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpiredKeys() {
+        int purged = offlineReplayRepository.purgeKeysBefore(
+                Instant.now().minus(Duration.ofHours(properties.getKeyRetentionHours())));
+        if (purged > 0) {
+            log.info("Purged {} expired offline action keys", purged);
+        }
+    }
+}
@@ -3,13 +3,20 @@ package com.example.demo.services;
 import com.example.demo.auth.dtos.*;
 import com.example.demo.models.*;
 import com.example.demo.repositories.*;
+import com.example.demo.events.CommentCreatedEvent;
+import com.example.demo.events.PostCreatedEvent;
+import com.example.demo.events.PostDeletedEvent;
+import com.example.demo.events.PostLikeToggledEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -23,7 +30,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class PostService {
-    
+
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+    private static final int MAX_COMMENT_PREVIEW = 5;
+
     private final PostRepository postRepository;
     private final PostMediaRepository postMediaRepository;
     private final CommentRepository commentRepository;
@@ -32,12 +42,26 @@ public class PostService {
     private final UserRepository userRepository;
     private final WeddingService weddingService;
     private final S3Service s3Service;
+    private final MediaStore mediaStore;
+    private final MediaDedupService mediaDedupService;
     private final com.example.demo.config.AwsS3Properties awsS3Properties;
+    private final com.example.demo.config.MediaStoreProperties mediaStoreProperties;
     private final com.example.demo.repositories.PushSubscriptionRepository pushSubscriptionRepository;
     private final WebPushService webPushService;
     private final ChallengeService challengeService;
+    private final FeedAssembler feedAssembler;
+    private final CommentAssembler commentAssembler;
+    private final FeedCache feedCache;
+    private final LikeCounterBuffer likeCounterBuffer;
+    private final LikeCounterRepository likeCounterRepository;
+    private final MemberStatsService memberStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
+    /**
+     * Verifies (and with dedup, hashes) the uploads before opening the transaction, so no database
+     * connection is held while objects are downloaded; the post itself is written in one short transaction.
+     */
     public PostDto createPost(UUID userId, CreatePostDto request) {
         // Verify user is member of the wedding
         UUID weddingId = UUID.fromString(request.getWeddingId());
@@ -45,6 +69,13 @@ public class PostService {
             throw new IllegalArgumentException("User is not a member of this wedding");
         }
         
+        // Verify the uploads before writing anything: real size, content type and ETag come from S3
+        List<FinalizedMedia> finalized = finalizeMedia(weddingId, request.getMediaUrls());
+        
+        return transactionTemplate.execute(status -> savePost(userId, weddingId, request, finalized));
+    }
+    
+    private PostDto savePost(UUID userId, UUID weddingId, CreatePostDto request, List<FinalizedMedia> finalized) {
         // Get wedding member
         WeddingMember member = weddingService.getWeddingMember(userId, weddingId)
                 .orElseThrow(() -> new IllegalArgumentException("Wedding member not found"));
@@ -62,39 +93,36 @@ public class PostService {
         Post savedPost = postRepository.save(post);
         
         // Handle media if provided
-        if (request.getMediaUrls() != null && !request.getMediaUrls().isEmpty()) {
-            for (int i = 0; i < request.getMediaUrls().size(); i++) {
-                String mediaUrl = request.getMediaUrls().get(i);
-                log.info("Processing media URL: {}", mediaUrl);
-                // Extract object key from URL, store only the leaf (without weddingId prefix)
-                String objectKeyWithPrefix = mediaUrl.replace(awsS3Properties.getPublicUrl() + "/", "");
-                String objectKey;
-                int lastSlash = objectKeyWithPrefix.lastIndexOf('/');
-                if (lastSlash >= 0 && lastSlash < objectKeyWithPrefix.length() - 1) {
-                    objectKey = objectKeyWithPrefix.substring(lastSlash + 1);
-                } else {
-                    objectKey = objectKeyWithPrefix;
-                }
-                log.info("Extracted leaf object key: {} (from: {})", objectKey, objectKeyWithPrefix);
-                
-                // Determine media type from URL or content type
-                MediaType mediaType = determineMediaTypeFromUrl(mediaUrl);
-                
+        if (!finalized.isEmpty()) {
+            for (int i = 0; i < finalized.size(); i++) {
+                FinalizedMedia media = finalized.get(i);
+                // Duplicate content points at the copy already stored in this wedding
+                String objectKey = media.contentHash() != null
+                        ? mediaDedupService.acquire(weddingId, media.contentHash(), media.leafKey(), media.object().sizeBytes())
+                        : media.leafKey();
                 PostMedia postMedia = new PostMedia(
                         savedPost.getId(),
-                        mediaType,
+                        determineMediaTypeFromContentType(media.object().contentType()),
                         objectKey,
-                        getMimeTypeFromUrl(mediaUrl),
-                        0, // Size will be updated later
+                        media.object().contentType() != null ? media.object().contentType() : "application/octet-stream",
+                        media.object().sizeBytes(),
                         i
                 );
+                postMedia.setEtag(media.object().eTag());
+                postMedia.setStorage(mediaStore.provider());
+                postMedia.setContentHash(media.contentHash());
+                if (!objectKey.equals(media.leafKey())) {
+                    reuseProcessing(postMedia);
+                }
                 postMediaRepository.save(postMedia);
             }
-            savedPost.setMediaCount(request.getMediaUrls().size());
+            savedPost.setMediaCount(finalized.size());
             postRepository.save(savedPost);
         }
         
+        memberStatsService.recordPost(member.getId(), weddingId, savedPost.getMediaCount());
         log.info("Created post {} for wedding {} by user {}", savedPost.getId(), weddingId, userId);
+        eventPublisher.publishEvent(new PostCreatedEvent(weddingId, savedPost.getId()));
 
         // Record challenge participation based on hashtags in content
         try {
@@ -133,8 +161,36 @@ public class PostService {
         return convertToPostDto(savedPost, userId);
     }
     
+    /**
+     * Soft-deletes a post (by its author or a wedding admin) and releases its media references, so
+     * content that no other post shares is removed from the store after commit.
+     */
+    @Transactional
+    public void deletePost(UUID userId, UUID postId) {
+        Post post = postRepository.findById(postId)
+                .filter(p -> !p.isDeleted())
+                .orElseThrow(() -> new IllegalArgumentException("Post not found"));
+        WeddingMember member = weddingService.getWeddingMember(userId, post.getWeddingId())
+                .filter(m -> m.getStatus() == MemberStatus.ACCEPTED)
+                .orElseThrow(() -> new IllegalArgumentException("User is not a member of this wedding"));
+        if (!member.getId().equals(post.getAuthorMemberId()) && member.getRole() != MemberRole.ADMIN) {
+            throw new IllegalArgumentException("Only the author or a wedding admin can delete this post");
+        }
+        
+        post.markAsDeleted();
+        postRepository.save(post);
+        for (PostMedia media : postMediaRepository.findByPostIdOrderByOrderIndexAsc(postId)) {
+            mediaDedupService.release(post.getWeddingId(), media);
+        }
+        // Counted from post_likes: under write-behind the stored like_count may lag
+        long likeCount = postLikeRepository.countByPostId(postId);
+        memberStatsService.recordPostDeleted(post.getAuthorMemberId(), post.getWeddingId(), post.getMediaCount(), likeCount);
+        log.info("Deleted post {} of wedding {} by user {}", postId, post.getWeddingId(), userId);
+        eventPublisher.publishEvent(new PostDeletedEvent(post.getWeddingId(), postId, post.getAuthorMemberId(), likeCount));
+    }
+    
     @Transactional(readOnly = true)
-    public Page<PostDto> getWeddingPosts(UUID userId, UUID weddingId, int page, int size) {
+    public Page<PostDto> getWeddingPosts(UUID userId, UUID weddingId, int page, int size, int commentPreview) {
         // Verify user is member of the wedding
         // LETS NOT CHECK FOR THE PILOT
 //        if (!weddingService.isUserMemberOfWedding(userId, weddingId)) {
@@ -142,20 +198,75 @@ public class PostService {
 //        }
         
         Pageable pageable = PageRequest.of(page, size);
+
+        // Hot first pages are served from the per-wedding cache; only the viewer's likes are queried
+        if (feedCache.isCacheable(page, size)) {
+            FeedCache.CachedFeedPage cached = feedCache.getOrLoad(weddingId, "page:" + page + ":" + size, () -> {
+                Page<Post> posts = postRepository.findByWeddingIdAndIsDeletedFalseOrderByCreatedAtDesc(weddingId, pageable);
+                return new FeedCache.CachedFeedPage(
+                        feedAssembler.assembleNeutral(posts.getContent()), posts.getTotalElements(), null, posts.hasNext());
+            });
+            List<PostDto> content = feedAssembler.withViewerLikes(cached.posts(), userId, weddingId);
+            feedAssembler.attachCommentPreviews(content, clampCommentPreview(commentPreview));
+            return new PageImpl<>(content, pageable, cached.totalElements());
+        }
+
         Page<Post> posts = postRepository.findByWeddingIdAndIsDeletedFalseOrderByCreatedAtDesc(weddingId, pageable);
         
-        // Batch load all related data to avoid N+1 queries
-        List<PostDto> optimizedPostDtos = convertToPostDtoBatch(posts.getContent(), userId, weddingId);
-        
-        return posts.map(post -> {
-            // Find the optimized DTO for this post
-            return optimizedPostDtos.stream()
-                    .filter(dto -> dto.getId().equals(post.getId()))
-                    .findFirst()
-                    .orElse(convertToPostDto(post, userId)); // Fallback to original method
-        });
+        // Batch load all related data to avoid N+1 queries; every post is assembled from the batch
+        Map<UUID, PostDto> dtosById = feedAssembler.assembleById(posts.getContent(), userId, weddingId);
+        feedAssembler.attachCommentPreviews(new java.util.ArrayList<>(dtosById.values()), clampCommentPreview(commentPreview));
+        return posts.map(post -> dtosById.get(post.getId()));
     }
     
+    /**
+     * Keyset-paginated feed keyed on (createdAt, id). Each page is a bounded index range scan,
+     * so deep pages cost the same as the first one, and no COUNT query is issued.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PostDto> getWeddingPostsByCursor(UUID userId, UUID weddingId, String cursor, int size, int commentPreview) {
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // The head of the feed is shared by every guest, so it goes through the cache
+        if (after == null && feedCache.isCacheable(0, limit)) {
+            FeedCache.CachedFeedPage head = feedCache.getOrLoad(weddingId, "cursor:" + limit,
+                    () -> loadCursorPage(weddingId, null, null, limit));
+            List<PostDto> content = feedAssembler.withViewerLikes(head.posts(), userId, weddingId);
+            feedAssembler.attachCommentPreviews(content, clampCommentPreview(commentPreview));
+            return new CursorPageDto<>(content, head.nextCursor(), head.hasNext());
+        }
+
+        FeedCache.CachedFeedPage feedPage = loadCursorPage(weddingId, userId, after, limit);
+        feedAssembler.attachCommentPreviews(feedPage.posts(), clampCommentPreview(commentPreview));
+        return new CursorPageDto<>(feedPage.posts(), feedPage.nextCursor(), feedPage.hasNext());
+    }
+
+    private static int clampCommentPreview(int commentPreview) {
+        return Math.max(0, Math.min(commentPreview, MAX_COMMENT_PREVIEW));
+    }
+
+    private FeedCache.CachedFeedPage loadCursorPage(UUID weddingId, UUID viewerUserId, KeysetCursor after, int limit) {
+        // One statement per page; fetch one extra row to know whether another page exists
+        List<PostDto> posts = feedAssembler.loadFeedPage(weddingId, viewerUserId,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                limit + 1);
+
+        boolean hasNext = posts.size() > limit;
+        if (hasNext) {
+            posts = new java.util.ArrayList<>(posts.subList(0, limit));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            PostDto last = posts.get(posts.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        // totalElements is not computed in cursor mode
+        return new FeedCache.CachedFeedPage(posts, -1, nextCursor, hasNext);
+    }
+
     @Transactional
     public CommentDto createComment(UUID userId, CreateCommentDto request) {
         UUID postId = UUID.fromString(request.getPostId());
@@ -172,13 +283,20 @@ public class PostService {
         WeddingMember member = weddingService.getWeddingMember(userId, post.getWeddingId())
                 .orElseThrow(() -> new IllegalArgumentException("Wedding member not found"));
         
-        // Create comment
+        // Create comment with a snapshot of the author so comment pages need no joins
         Comment comment = new Comment(postId, member.getId(), request.getContentText());
+        comment.setAuthorUserId(member.getUserId());
+        userRepository.findById(member.getUserId()).ifPresent(author -> {
+            comment.setAuthorName(author.getName());
+            comment.setAuthorAvatarUrl(author.getAvatarUrl());
+        });
         Comment savedComment = commentRepository.save(comment);
         // increment denormalized comment count
         postRepository.incrementCommentCount(postId);
+        memberStatsService.recordComment(member.getId(), post.getWeddingId());
         
         log.info("Created comment {} for post {} by user {}", savedComment.getId(), postId, userId);
+        eventPublisher.publishEvent(new CommentCreatedEvent(post.getWeddingId(), postId, savedComment.getId()));
         return convertToCommentDto(savedComment);
     }
     
@@ -194,12 +312,17 @@ public class PostService {
         Pageable pageable = PageRequest.of(page, size);
         Page<Comment> comments = commentRepository.findByPostIdAndIsDeletedFalseOrderByCreatedAtAsc(postId, pageable);
         
-        return comments.map(this::convertToCommentDto);
+        // Authors are resolved for the whole page with one member and one user query
+        return new PageImpl<>(commentAssembler.assemble(comments.getContent()), pageable, comments.getTotalElements());
     }
     
-    @Transactional
-    public void togglePostLike(UUID userId, UUID postId) {
-        // Get post and verify user has access
+    /**
+     * Incremental comment sync: returns comments newer than the client's last-seen (createdAt, id),
+     * oldest first. nextCursor always points at the newest comment the client now has, so polling
+     * with it transfers only new rows.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<CommentDto> getPostCommentsAfter(UUID userId, UUID postId, String after, int size) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
         
@@ -207,25 +330,70 @@ public class PostService {
             throw new IllegalArgumentException("User is not a member of this wedding");
         }
         
-        // Get wedding member
-        WeddingMember member = weddingService.getWeddingMember(userId, post.getWeddingId())
-                .orElseThrow(() -> new IllegalArgumentException("Wedding member not found"));
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        // Fetch one extra row to know whether the client should keep paging
+        List<Comment> comments = cursor == null
+                ? commentRepository.findThreadHead(postId, limit + 1)
+                : commentRepository.findThreadAfter(postId, cursor.createdAt(), cursor.id(), limit + 1);
+        
+        boolean hasNext = comments.size() > limit;
+        if (hasNext) {
+            comments = comments.subList(0, limit);
+        }
+        
+        String nextCursor = after;
+        if (!comments.isEmpty()) {
+            Comment last = comments.get(comments.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(commentAssembler.assemble(comments), nextCursor, hasNext);
+    }
+    
+    /**
+     * Toggles the viewer's like without a read-then-write race: the unique (post_id, member_id)
+     * constraint arbitrates concurrent taps, and only a statement that actually changed a row
+     * moves the counter.
+     */
+    @Transactional
+    public PostLikeStateDto togglePostLike(UUID userId, UUID postId) {
+        // Get post and verify user has access; likes on deleted posts are frozen, as in offline replay
+        Post post = postRepository.findById(postId)
+                .filter(p -> !p.isDeleted())
+                .orElseThrow(() -> new IllegalArgumentException("Post not found"));
         
-        // Check if already liked
-        Optional<PostLike> existingLike = postLikeRepository.findByPostIdAndMemberId(postId, member.getId());
+        WeddingMember member = weddingService.getWeddingMember(userId, post.getWeddingId())
+                .filter(m -> m.getStatus() == MemberStatus.ACCEPTED)
+                .orElseThrow(() -> new IllegalArgumentException("User is not a member of this wedding"));
+        
+        boolean liked;
+        int delta;
+        if (postLikeRepository.deleteIfPresent(postId, member.getId()) > 0) {
+            liked = false;
+            delta = -1;
+        } else {
+            liked = true;
+            // 0 rows: a concurrent tap from the same member already inserted the like
+            delta = postLikeRepository.insertIfAbsent(UUID.randomUUID(), postId, member.getId());
+        }
         
-        if (existingLike.isPresent()) {
-            // Unlike
-            postLikeRepository.delete(existingLike.get());
-            postRepository.decrementLikeCount(postId);
-            log.info("User {} unliked post {}", userId, postId);
+        int likeCount;
+        if (likeCounterBuffer.isEnabled()) {
+            // Write-behind: LikeCounterBuffer picks the delta up from PostLikeToggledEvent after commit
+            likeCount = likeCounterBuffer.withPending(postId, post.getLikeCount() + delta);
+        } else if (delta != 0) {
+            likeCount = likeCounterRepository.applyDelta(postId, delta);
         } else {
-            // Like
-            PostLike like = new PostLike(postId, member.getId());
-            postLikeRepository.save(like);
-            postRepository.incrementLikeCount(postId);
-            log.info("User {} liked post {}", userId, postId);
+            likeCount = post.getLikeCount();
+        }
+        
+        memberStatsService.recordLike(member.getId(), post.getAuthorMemberId(), post.getWeddingId(), delta);
+        log.info("User {} {} post {}", userId, liked ? "liked" : "unliked", postId);
+        if (delta != 0) {
+            eventPublisher.publishEvent(new PostLikeToggledEvent(post.getWeddingId(), postId, member.getId(),
+                    post.getAuthorMemberId(), liked, likeCount));
         }
+        return new PostLikeStateDto(postId, liked, likeCount);
     }
     
     public com.example.demo.auth.dtos.PresignedUploadResponse generatePresignedUploadUrl(UUID userId, UUID weddingId, 
@@ -269,15 +437,47 @@ public class PostService {
             throw new IllegalArgumentException("Only image originals are supported for thumbnails");
         }
 
-        int dot = originalObjectKey.lastIndexOf('.');
-        String base = (dot > -1) ? originalObjectKey.substring(0, dot) : originalObjectKey;
-        String thumbKey = base + "_thumbnail.jpg";
+        String thumbKey = s3Service.thumbnailKeyFor(originalObjectKey);
 
         com.example.demo.auth.dtos.PresignedUploadResponse resp = s3Service.generatePresignedUploadUrlForKey(
                 thumbKey, "image/jpeg");
         log.info("Generated presigned thumbnail URL for {} -> {}", originalObjectKey, thumbKey);
         return resp;
     }
+
+    public List<PresignedBatchItemResponseDto> generatePresignedUploadBatch(UUID userId, UUID weddingId,
+            List<PresignedBatchItemDto> items) {
+        if (items.size() > awsS3Properties.getPresignBatchMaxItems()) {
+            throw new IllegalArgumentException("At most " + awsS3Properties.getPresignBatchMaxItems() + " items per batch");
+        }
+        // One membership check covers every item in the batch
+        if (!weddingService.isUserMemberOfWedding(userId, weddingId)) {
+            throw new IllegalArgumentException("User is not a member of this wedding");
+        }
+
+        List<PresignedBatchItemResponseDto> response = s3Service.generatePresignedUploadBatch(weddingId, items);
+        log.info("Generated {} presigned upload URLs for wedding {} by user {}", items.size(), weddingId, userId);
+        return response;
+    }
+
+    public String uploadMediaStream(UUID userId, UUID weddingId, java.io.InputStream body, String contentType,
+            long contentLength) throws IOException {
+        if (!weddingService.isUserMemberOfWedding(userId, weddingId)) {
+            throw new IllegalArgumentException("User is not a member of this wedding");
+        }
+        // Reject a declared oversize body before reading any of it; chunked bodies are checked while streaming
+        if (contentLength > awsS3Properties.getMaxFileSizeMB() * 1024L * 1024L) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed size of " + awsS3Properties.getMaxFileSizeMB() + "MB");
+        }
+
+        MediaType mediaType = determineMediaTypeFromContentType(contentType);
+        String objectKey = s3Service.uploadMediaStream(body, contentType, mediaType, weddingId);
+        String mediaUrl = s3Service.getMediaUrl(objectKey);
+
+        log.info("Streamed media {} for wedding {} by user {}", objectKey, weddingId, userId);
+        return mediaUrl;
+    }
+
     public String uploadMedia(UUID userId, UUID weddingId, MultipartFile file) throws IOException {
         // Verify user is member of the wedding
         if (!weddingService.isUserMemberOfWedding(userId, weddingId)) {
@@ -295,71 +495,6 @@ public class PostService {
         return mediaUrl;
     }
     
-    /**
-     * Optimized method to convert multiple posts to DTOs with batch queries
-     */
-    private List<PostDto> convertToPostDtoBatch(List<Post> posts, UUID userId, UUID weddingId) {
-        if (posts.isEmpty()) {
-            return List.of();
-        }
-        
-        // Extract post IDs and author user IDs
-        List<UUID> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
-        List<UUID> authorUserIds = posts.stream()
-                .map(Post::getAuthorUserId)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // Batch load all author users directly using denormalized author_user_id
-        List<User> authorUsers = userRepository.findAllById(authorUserIds);
-        Map<UUID, User> userMap = authorUsers.stream()
-                .collect(Collectors.toMap(User::getId, user -> user));
-        
-        // Batch load all media for all posts
-        List<PostMedia> allMedia = postMediaRepository.findByPostIdInOrderByPostIdAscOrderIndexAsc(postIds);
-        Map<UUID, List<PostMedia>> mediaMap = allMedia.stream()
-                .collect(Collectors.groupingBy(PostMedia::getPostId));
-        
-        // Get user member once for like checking
-        Optional<WeddingMember> userMember = weddingService.getWeddingMember(userId, weddingId);
-        Map<UUID, Boolean> likedByUserMap; // Will be populated if user member exists
-        
-        if (userMember.isPresent()) {
-            List<PostLike> likedPostIds = postLikeRepository.findPostIdsByMemberIdAndPostIdIn(userMember.get().getId(), postIds);
-            likedByUserMap = likedPostIds.stream()
-                    .collect(Collectors.toMap(PostLike::getPostId, postId -> true));
-        } else {
-            likedByUserMap = Map.of();
-        }
-
-        // Convert posts to DTOs using batch-loaded data
-        return posts.stream().map(post -> {
-            // Use denormalized author_user_id; no wedding_member fallback after backfill
-            User authorUser = userMap.get(post.getAuthorUserId());
-            String authorName = authorUser != null ? authorUser.getName() : null;
-            List<PostMedia> mediaList = mediaMap.getOrDefault(post.getId(), List.of());
-            List<PostMediaDto> mediaDtos = mediaList.stream()
-                    .map(media -> convertToPostMediaDto(media, weddingId))
-                    .collect(Collectors.toList());
-            
-            return new PostDto(
-                    post.getId(),
-                    post.getWeddingId(),
-                    post.getAuthorMemberId(),
-                    authorName,
-                    post.getContentText(),
-                    post.getVisibility(),
-                    post.getMediaCount(),
-                    mediaDtos,
-                    post.getLikeCount(),
-                    post.getCommentCount(),
-                    likedByUserMap.getOrDefault(post.getId(), false),
-                    post.getCreatedAt(),
-                    post.getUpdatedAt()
-            );
-        }).collect(Collectors.toList());
-    }
-    
     private PostDto convertToPostDto(Post post, UUID userId) {
         // Get author info using denormalized author_user_id only
         if (post.getAuthorUserId() == null) {
@@ -371,11 +506,11 @@ public class PostService {
         // Get media
         List<PostMedia> mediaList = postMediaRepository.findByPostIdOrderByOrderIndex(post.getId());
         List<PostMediaDto> mediaDtos = mediaList.stream()
-                .map(media -> convertToPostMediaDto(media, post.getWeddingId()))
+                .map(media -> feedAssembler.toPostMediaDto(media, post.getWeddingId()))
                 .collect(Collectors.toList());
         
         // Use denormalized counts on Post
-        long likeCount = post.getLikeCount();
+        long likeCount = likeCounterBuffer.withPending(post.getId(), post.getLikeCount());
         long commentCount = post.getCommentCount();
         
         // Check if user liked this post
@@ -400,66 +535,86 @@ public class PostService {
                 (int) commentCount,
                 isLikedByUser,
                 post.getCreatedAt(),
-                post.getUpdatedAt()
+                post.getUpdatedAt(),
+                null
         );
     }
     
-    private PostMediaDto convertToPostMediaDto(PostMedia media, UUID weddingId) {
-        // We store only the leaf object key (e.g., "uuid.jpg").
-        // When returning, prepend the weddingId folder. For backward compatibility,
-        // if the stored key already contains the weddingId prefix, don't add it again.
-        String storedKey = media.getObjectKey();
-        String prefix = weddingId.toString() + "/";
-        String fullObjectKey = storedKey.startsWith(prefix) ? storedKey : (prefix + storedKey);
-        String mediaUrl = awsS3Properties.getPublicUrl() + "/" + fullObjectKey;
-        return new PostMediaDto(
-                media.getId(),
-                media.getType(),
-                mediaUrl,
-                media.getMimeType(),
-                media.getSizeBytes(),
-                media.getDurationSec(),
-                media.getOrderIndex(),
-                media.getTranscodeStatus(),
-                media.getCreatedAt()
-        );
-    }
-
     private String toJsonString(String v) {
         return '"' + v.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
     }
     
     private CommentDto convertToCommentDto(Comment comment) {
-        // Get author info
-        WeddingMember authorMember = weddingMemberRepository.findById(comment.getAuthorMemberId())
-                .orElseThrow(() -> new IllegalArgumentException("Author member not found"));
-        
-        User authorUser = userRepository.findById(authorMember.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("Author user not found"));
-        
-        return new CommentDto(
-                comment.getId(),
-                comment.getPostId(),
-                comment.getAuthorMemberId(),
-                authorUser.getName(),
-                comment.getContentText(),
-                comment.getCreatedAt(),
-                comment.getUpdatedAt()
-        );
+        return commentAssembler.assemble(List.of(comment)).get(0);
     }
     
-    private MediaType determineMediaTypeFromUrl(String url) {
-        String lowerUrl = url.toLowerCase();
-        if (lowerUrl.contains("image") || lowerUrl.matches(".*\\.(jpg|jpeg|png|gif|webp)$")) {
-            return MediaType.IMAGE;
-        } else if (lowerUrl.contains("video") || lowerUrl.matches(".*\\.(mp4|mov|avi)$")) {
-            return MediaType.VIDEO;
-        } else if (lowerUrl.contains("audio") || lowerUrl.matches(".*\\.(mp3|wav|ogg)$")) {
-            return MediaType.AUDIO;
+    private record FinalizedMedia(String leafKey, MediaStore.StoredObject object, String contentHash) {
+    }
+
+    /**
+     * Resolves the posted media URLs to their objects and HEADs them all in parallel. Rejects the post
+     * if any object was never uploaded or exceeds the size limit. With dedup enabled, each object is
+     * then hashed so duplicates can share one stored copy.
+     */
+    private List<FinalizedMedia> finalizeMedia(UUID weddingId, List<String> mediaUrls) {
+        if (mediaUrls == null || mediaUrls.isEmpty()) {
+            return List.of();
         }
-        return MediaType.IMAGE; // Default
+        String prefix = weddingId.toString() + "/";
+        List<String> leafKeys = new java.util.ArrayList<>(mediaUrls.size());
+        for (String mediaUrl : mediaUrls) {
+            // Extract object key from URL, store only the leaf (without weddingId prefix)
+            String objectKeyWithPrefix = mediaUrl.replace(mediaStoreProperties.publicUrlOr(awsS3Properties.getPublicUrl()) + "/", "");
+            int lastSlash = objectKeyWithPrefix.lastIndexOf('/');
+            leafKeys.add(lastSlash >= 0 && lastSlash < objectKeyWithPrefix.length() - 1
+                    ? objectKeyWithPrefix.substring(lastSlash + 1)
+                    : objectKeyWithPrefix);
+        }
+
+        Map<String, MediaStore.StoredObject> objects = mediaStore.head(
+                leafKeys.stream().map(key -> prefix + key).distinct().toList());
+        long maxBytes = awsS3Properties.getMaxFileSizeMB() * 1024L * 1024L;
+        for (String leafKey : leafKeys) {
+            MediaStore.StoredObject object = objects.get(prefix + leafKey);
+            if (object == null) {
+                throw new IllegalArgumentException("Media not found: " + leafKey);
+            }
+            if (object.sizeBytes() > maxBytes) {
+                throw new IllegalArgumentException("Media " + leafKey + " exceeds maximum allowed size of "
+                        + awsS3Properties.getMaxFileSizeMB() + "MB");
+            }
+        }
+
+        Map<String, String> hashes = mediaDedupService.isEnabled()
+                ? mediaDedupService.hash(leafKeys.stream().map(key -> prefix + key).distinct().toList())
+                : Map.of();
+        List<FinalizedMedia> finalized = new java.util.ArrayList<>(leafKeys.size());
+        for (String leafKey : leafKeys) {
+            finalized.add(new FinalizedMedia(leafKey, objects.get(prefix + leafKey), hashes.get(prefix + leafKey)));
+        }
+        return finalized;
     }
-    
+
+    /**
+     * Copies finished thumbnail and transcode results from earlier media sharing the same object,
+     * so a deduplicated upload is not processed again.
+     */
+    private void reuseProcessing(PostMedia postMedia) {
+        postMediaRepository.findFirstByObjectKeyAndContentHashOrderByCreatedAtAsc(postMedia.getObjectKey(), postMedia.getContentHash())
+                .ifPresent(existing -> {
+                    if (existing.getThumbnailStatus() == ThumbnailStatus.COMPLETED) {
+                        postMedia.setThumbnailStatus(ThumbnailStatus.COMPLETED);
+                        postMedia.setWidth(existing.getWidth());
+                        postMedia.setHeight(existing.getHeight());
+                        postMedia.setVariantWidths(existing.getVariantWidths());
+                    }
+                    if (existing.getTranscodeStatus() == TranscodeStatus.COMPLETED) {
+                        postMedia.setTranscodeStatus(TranscodeStatus.COMPLETED);
+                        postMedia.setDurationSec(existing.getDurationSec());
+                    }
+                });
+    }
+
     private MediaType determineMediaTypeFromContentType(String contentType) {
         if (contentType == null) return MediaType.IMAGE;
         
@@ -473,43 +628,14 @@ public class PostService {
         return MediaType.IMAGE; // Default
     }
     
-    private String getMimeTypeFromUrl(String url) {
-        String lowerUrl = url.toLowerCase();
-        if (lowerUrl.endsWith(".jpg") || lowerUrl.endsWith(".jpeg")) {
-            return "image/jpeg";
-        } else if (lowerUrl.endsWith(".png")) {
-            return "image/png";
-        } else if (lowerUrl.endsWith(".gif")) {
-            return "image/gif";
-        } else if (lowerUrl.endsWith(".webp")) {
-            return "image/webp";
-        } else if (lowerUrl.endsWith(".mp4")) {
-            return "video/mp4";
-        } else if (lowerUrl.endsWith(".mov")) {
-            return "video/quicktime";
-        } else if (lowerUrl.endsWith(".avi")) {
-            return "video/x-msvideo";
-        } else if (lowerUrl.endsWith(".mp3")) {
-            return "audio/mpeg";
-        } else if (lowerUrl.endsWith(".wav")) {
-            return "audio/wav";
-        } else if (lowerUrl.endsWith(".ogg")) {
-            return "audio/ogg";
-        }
-        return "application/octet-stream"; // Default
-    }
-
     public org.springframework.data.domain.Page<PostDto> getMemberPosts(java.util.UUID userId, java.util.UUID weddingId, java.util.UUID authorMemberId, int page, int size) {
         if (!weddingService.isUserMemberOfWedding(userId, weddingId)) {
             throw new IllegalArgumentException("User is not a member of this wedding");
         }
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
         org.springframework.data.domain.Page<com.example.demo.models.Post> posts = postRepository.findByAuthorMemberIdAndIsDeletedFalseOrderByCreatedAtDesc(authorMemberId, pageable);
-        java.util.List<PostDto> optimized = convertToPostDtoBatch(posts.getContent(), userId, weddingId);
-        return posts.map(post -> optimized.stream()
-                .filter(dto -> dto.getId().equals(post.getId()))
-                .findFirst()
-                .orElse(convertToPostDto(post, userId)));
+        java.util.Map<UUID, PostDto> dtosById = feedAssembler.assembleById(posts.getContent(), userId, weddingId);
+        return posts.map(post -> dtosById.get(post.getId()));
     }
 }
 
@@ -0,0 +1,211 @@
+package com.example.demo.services;
+
+import com.example.demo.config.AwsS3Properties;
+import com.example.demo.models.StorageProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * MediaStore on S3 / R2 using the shared clients from S3ClientConfig.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class S3MediaStore implements MediaStore {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final AwsS3Properties awsS3Properties;
+    private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final S3MultipartUploader multipartUploader;
+
+    @Override
+    public StorageProvider provider() {
+        return StorageProvider.R2;
+    }
+
+    @Override
+    public InputStream open(String objectKey) {
+        return s3Client.getObject(b -> b.bucket(awsS3Properties.getBucketName()).key(objectKey));
+    }
+
+    @Override
+    public Download get(String objectKey, String range) {
+        ResponseInputStream<GetObjectResponse> in;
+        try {
+            in = s3Client.getObject(b -> b.bucket(awsS3Properties.getBucketName()).key(objectKey).range(range));
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 416) {
+                // The error carries no size; look it up so the caller can answer "bytes */size"
+                StoredObject stored = head(List.of(objectKey)).get(objectKey);
+                return stored == null ? null : new Download(InputStream.nullInputStream(), stored.sizeBytes(),
+                        stored.sizeBytes(), 0, stored.contentType(), stored.eTag());
+            }
+            throw e;
+        }
+        GetObjectResponse response = in.response();
+        long length = response.contentLength();
+        long start = 0;
+        long size = length;
+        String contentRange = response.contentRange();
+        if (contentRange != null && contentRange.startsWith("bytes ")) {
+            // "bytes <start>-<end>/<size>"
+            int dash = contentRange.indexOf('-');
+            int slash = contentRange.indexOf('/');
+            start = Long.parseLong(contentRange.substring("bytes ".length(), dash));
+            size = Long.parseLong(contentRange.substring(slash + 1));
+        }
+        return new Download(new AbortOnCloseInputStream(in), size, start, length, response.contentType(), response.eTag());
+    }
+
+    @Override
+    public void put(String objectKey, byte[] content, String contentType) {
+        s3Client.putObject(b -> b
+                        .bucket(awsS3Properties.getBucketName())
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .cacheControl(IMMUTABLE)
+                        .contentLength((long) content.length),
+                RequestBody.fromBytes(content));
+    }
+
+    @Override
+    public void putFile(String objectKey, Path file, String contentType) {
+        s3Client.putObject(b -> b
+                        .bucket(awsS3Properties.getBucketName())
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .cacheControl(IMMUTABLE),
+                RequestBody.fromFile(file));
+    }
+
+    @Override
+    public long putStream(String objectKey, String contentType, InputStream body, long maxBytes) throws IOException {
+        return multipartUploader.upload(objectKey, contentType, IMMUTABLE, body, maxBytes);
+    }
+
+    /**
+     * Issues a HeadObject for every key concurrently on the shared async client and waits for all of them.
+     * Any failure other than a missing key is rethrown.
+     */
+    @Override
+    public Map<String, StoredObject> head(Collection<String> objectKeys) {
+        Map<String, CompletableFuture<StoredObject>> futures = new HashMap<>();
+        for (String key : objectKeys) {
+            futures.put(key, s3AsyncClient.headObject(b -> b.bucket(awsS3Properties.getBucketName()).key(key))
+                    .thenApply(head -> new StoredObject(key, head.contentLength(), head.contentType(), head.eTag()))
+                    .exceptionally(t -> {
+                        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                        if (cause instanceof S3Exception s3 && s3.statusCode() == 404) {
+                            return null;
+                        }
+                        throw t instanceof CompletionException ce ? ce : new CompletionException(cause);
+                    }));
+        }
+        Map<String, StoredObject> found = new HashMap<>();
+        try {
+            for (Map.Entry<String, CompletableFuture<StoredObject>> entry : futures.entrySet()) {
+                StoredObject object = entry.getValue().join();
+                if (object != null) {
+                    found.put(entry.getKey(), object);
+                }
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        return found;
+    }
+
+    @Override
+    public Page list(String prefix, String token) {
+        ListObjectsV2Response response = s3Client.listObjectsV2(b -> b
+                .bucket(awsS3Properties.getBucketName())
+                .prefix(prefix)
+                .maxKeys(1000)
+                .continuationToken(token));
+        return new Page(response.contents().stream().map(S3Object::key).toList(),
+                Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null);
+    }
+
+    /**
+     * One quiet DeleteObjects call; per-key failures are logged and left out of the count.
+     */
+    @Override
+    public int delete(List<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return 0;
+        }
+        DeleteObjectsResponse response = s3Client.deleteObjects(b -> b
+                .bucket(awsS3Properties.getBucketName())
+                .delete(d -> d
+                        .quiet(true)
+                        .objects(objectKeys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())));
+        if (response.hasErrors()) {
+            response.errors().stream().limit(5).forEach(error ->
+                    log.warn("Failed to delete {}: {} {}", error.key(), error.code(), error.message()));
+        }
+        // Quiet mode only reports failures
+        return objectKeys.size() - (response.hasErrors() ? response.errors().size() : 0);
+    }
+
+    /**
+     * Closing a partly read S3 body would drain the rest of the object to reuse the connection;
+     * abort instead, e.g. when an object turns out too large to cache or the client goes away.
+     */
+    private static final class AbortOnCloseInputStream extends FilterInputStream {
+
+        private final ResponseInputStream<?> response;
+        private boolean eof;
+
+        AbortOnCloseInputStream(ResponseInputStream<?> response) {
+            super(response);
+            this.response = response;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            eof |= b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            eof |= n < 0;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!eof) {
+                response.abort();
+            }
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.services;
+
+import com.example.demo.config.AwsS3Properties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams an object of unknown length into S3 without spooling it: the body is cut into fixed-size parts
+ * that are uploaded in parallel as a multipart upload. Part buffers come from a shared, bounded pool and
+ * each upload has at most {@code multipartParallelism} parts in flight, so memory per upload is bounded
+ * by part size × parallelism. Bodies smaller than one part go up as a single PUT. When the pool stays
+ * exhausted for {@code multipartBufferWaitMillis} the upload fails with 503 instead of queueing forever.
+ * A failed upload is aborted so no orphaned parts are left behind.
+ */
+@Slf4j
+@Service
+public class S3MultipartUploader {
+
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024; // S3 minimum for all but the last part
+
+    private final S3Client s3Client;
+    private final AwsS3Properties properties;
+    private final int partSize;
+    private final ExecutorService partExecutor;
+    private final BlockingQueue<byte[]> freeBuffers = new LinkedBlockingQueue<>();
+    private final AtomicInteger allocatedBuffers = new AtomicInteger();
+
+    public S3MultipartUploader(S3Client s3Client, AwsS3Properties properties) {
+        this.s3Client = s3Client;
+        this.properties = properties;
+        this.partSize = (int) Math.max(MIN_PART_SIZE, properties.getMultipartPartSizeMB() * 1024L * 1024L);
+        this.partExecutor = Executors.newFixedThreadPool(properties.getMultipartUploadThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Uploads the stream to {@code objectKey} and returns the number of bytes written.
+     * Throws IllegalArgumentException (after aborting) when the body exceeds {@code maxBytes}.
+     */
+    public long upload(String objectKey, String contentType, String cacheControl, InputStream body, long maxBytes) throws IOException {
+        String bucket = properties.getBucketName();
+        byte[] first = acquireBuffer();
+        int firstLength;
+        String uploadId;
+        boolean multipart = false;
+        try {
+            firstLength = body.readNBytes(first, 0, partSize);
+            if (firstLength == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            checkLimit(firstLength, maxBytes);
+            if (firstLength < partSize) {
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey)
+                                .contentType(contentType)
+                                .cacheControl(cacheControl)
+                                .contentLength((long) firstLength)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(first, 0, firstLength), firstLength));
+                return firstLength;
+            }
+            uploadId = s3Client.createMultipartUpload(b -> b
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .contentType(contentType)
+                    .cacheControl(cacheControl)).uploadId();
+            multipart = true;
+        } finally {
+            if (!multipart) {
+                releaseBuffer(first);
+            }
+        }
+
+        Semaphore inFlight = new Semaphore(properties.getMultipartParallelism());
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        // The buffer currently owned by this thread (filled, not yet handed to a part task)
+        byte[] owned = first;
+        long total = 0;
+        try {
+            int length = firstLength;
+            int partNumber = 1;
+            while (length > 0) {
+                total += length;
+                checkLimit(total, maxBytes);
+                inFlight.acquire();
+                byte[] partBuffer = owned;
+                owned = null;
+                parts.add(submitPart(bucket, objectKey, uploadId, partNumber++, partBuffer, length, inFlight));
+                failFast(parts);
+
+                owned = acquireBuffer();
+                length = body.readNBytes(owned, 0, partSize);
+            }
+            releaseBuffer(owned);
+            owned = null;
+
+            List<CompletedPart> completed = parts.stream()
+                    .map(CompletableFuture::join)
+                    .sorted(Comparator.comparing(CompletedPart::partNumber))
+                    .toList();
+            s3Client.completeMultipartUpload(b -> b
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(completed)));
+            log.info("Completed multipart upload of {} ({} bytes, {} parts)", objectKey, total, completed.size());
+            return total;
+        } catch (Exception e) {
+            if (owned != null) {
+                releaseBuffer(owned);
+            }
+            abort(bucket, objectKey, uploadId, parts);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Upload interrupted", e);
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    private CompletableFuture<CompletedPart> submitPart(String bucket, String objectKey, String uploadId,
+                                                        int partNumber, byte[] buffer, int length, Semaphore inFlight) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    UploadPartResponse response = s3Client.uploadPart(b -> b
+                                    .bucket(bucket)
+                                    .key(objectKey)
+                                    .uploadId(uploadId)
+                                    .partNumber(partNumber)
+                                    .contentLength((long) length),
+                            RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+                    return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+                } finally {
+                    releaseBuffer(buffer);
+                    inFlight.release();
+                }
+            }, partExecutor);
+        } catch (RuntimeException e) {
+            // Rejected by the executor: the task never ran, so hand back its buffer and permit here
+            releaseBuffer(buffer);
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void failFast(List<CompletableFuture<CompletedPart>> parts) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                part.join();
+            }
+        }
+    }
+
+    private void abort(String bucket, String objectKey, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        // Let in-flight parts finish first, otherwise they can land after the abort and linger as storage
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).exceptionally(t -> null).join();
+        try {
+            s3Client.abortMultipartUpload(b -> b.bucket(bucket).key(objectKey).uploadId(uploadId));
+            log.warn("Aborted multipart upload of {}", objectKey);
+        } catch (Exception e) {
+            log.error("Failed to abort multipart upload {} of {}", uploadId, objectKey, e);
+        }
+    }
+
+    private void checkLimit(long bytes, long maxBytes) {
+        if (bytes > maxBytes) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed size of " + properties.getMaxFileSizeMB() + "MB");
+        }
+    }
+
+    private byte[] acquireBuffer() throws IOException {
+        byte[] buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocatedBuffers.incrementAndGet() <= properties.getMultipartBufferPoolSize()) {
+            return new byte[partSize];
+        }
+        allocatedBuffers.decrementAndGet();
+        try {
+            // Pool exhausted: wait a bounded time for another upload's part to finish
+            buffer = freeBuffers.poll(properties.getMultipartBufferWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for an upload buffer", e);
+        }
+        if (buffer == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Upload capacity exhausted, retry later");
+        }
+        return buffer;
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        freeBuffers.offer(buffer);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partExecutor.shutdownNow();
+    }
+}
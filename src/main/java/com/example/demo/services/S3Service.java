@@ -1,25 +1,31 @@
 package com.example.demo.services;
 
+import com.example.demo.auth.dtos.PresignedBatchItemDto;
+import com.example.demo.auth.dtos.PresignedBatchItemResponseDto;
 import com.example.demo.auth.dtos.PresignedUploadResponse;
 import com.example.demo.config.AwsS3Properties;
+import com.example.demo.config.MediaStoreProperties;
 import com.example.demo.models.MediaType;
+import com.example.demo.models.PostMedia;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,29 +33,59 @@ import java.util.UUID;
 public class S3Service {
     
     private final AwsS3Properties awsS3Properties;
+    private final MediaStoreProperties mediaStoreProperties;
+    // Shared presigner from S3ClientConfig; never close it here
+    private final S3Presigner presigner;
+    private final MediaStore mediaStore;
+    // Presigning is CPU-bound (HMAC signing), so batches are spread over a core-sized pool
+    private ExecutorService presignExecutor;
     
-    private S3Client getS3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(
-                awsS3Properties.getAccessKeyId(),
-                awsS3Properties.getSecretAccessKey()
-        );
-        
-        return S3Client.builder()
-                .region(Region.of(awsS3Properties.getRegion()))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
-                .build();
+    @PostConstruct
+    void startPresignExecutor() {
+        int threads = awsS3Properties.getPresignThreads() > 0
+                ? awsS3Properties.getPresignThreads()
+                : Runtime.getRuntime().availableProcessors();
+        presignExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-presign");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
-    private S3Presigner getS3Presigner() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(
-                awsS3Properties.getAccessKeyId(),
-                awsS3Properties.getSecretAccessKey()
-        );
-        
-        return S3Presigner.builder()
-                .region(Region.of(awsS3Properties.getRegion()))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
-                .build();
+    @PreDestroy
+    void stopPresignExecutor() {
+        presignExecutor.shutdownNow();
+    }
+    
+    /**
+     * Presigns uploads for several media items of one wedding in parallel, including the thumbnail
+     * key of each image that asks for one. Results are returned in request order.
+     */
+    public List<PresignedBatchItemResponseDto> generatePresignedUploadBatch(UUID weddingId, List<PresignedBatchItemDto> items) {
+        for (PresignedBatchItemDto item : items) {
+            if (item.isWantThumbnail() && item.getMediaType() != MediaType.IMAGE) {
+                throw new IllegalArgumentException("Thumbnails are only supported for images");
+            }
+        }
+        List<CompletableFuture<PresignedBatchItemResponseDto>> futures = items.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> {
+                    PresignedUploadResponse original = generatePresignedUploadUrl(
+                            item.getMediaType(), weddingId, item.getContentType(), 0L);
+                    PresignedUploadResponse thumbnail = item.isWantThumbnail()
+                            ? generatePresignedUploadUrlForKey(thumbnailKeyFor(original.getObjectKey()), "image/jpeg")
+                            : null;
+                    return new PresignedBatchItemResponseDto(original, thumbnail);
+                }, presignExecutor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+    
+    public String thumbnailKeyFor(String originalObjectKey) {
+        return PostMedia.thumbnailKey(originalObjectKey, null);
     }
     
     public PresignedUploadResponse generatePresignedUploadUrl(MediaType mediaType, UUID weddingId, String contentType, long fileSize) {
@@ -71,7 +107,7 @@ public class S3Service {
         }
         String objectKey = generateObjectKey(weddingId, mediaType, fileExtension);
         
-        try (S3Presigner presigner = getS3Presigner()) {
+        try {
             // Set Content-Type and Cache-Control on the object so browsers/CDNs cache aggressively.
             String cacheControl = "public, max-age=31536000, immutable"; // 1 year, versioned keys are immutable
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
@@ -126,62 +162,53 @@ public class S3Service {
         }
         String objectKey = generateObjectKey(weddingId, mediaType, fileExtension);
         
-        try (S3Client s3Client = getS3Client()) {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(awsS3Properties.getBucketName())
-                    .key(objectKey)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-            
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-            
-            log.info("Successfully uploaded media to S3: {}", objectKey);
-            return objectKey;
-        }
+        mediaStore.putStream(objectKey, file.getContentType(), file.getInputStream(), file.getSize());
+        
+        log.info("Successfully uploaded media to {}: {}", mediaStore.provider(), objectKey);
+        return objectKey;
     }
     
-    public void deleteMedia(String objectKey) {
-        try (S3Client s3Client = getS3Client()) {
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(awsS3Properties.getBucketName())
-                    .key(objectKey)
-                    .build();
-            
-            s3Client.deleteObject(deleteObjectRequest);
-            log.info("Successfully deleted media from S3: {}", objectKey);
-        } catch (Exception e) {
-            log.error("Failed to delete media from S3: {}", objectKey, e);
+    /**
+     * Streams a raw request body to the media store (S3 multipart for anything larger than one part)
+     * without spooling it first. The size limit is enforced while reading, since the length may be unknown.
+     */
+    public String uploadMediaStream(InputStream body, String contentType, MediaType mediaType, UUID weddingId) throws IOException {
+        if (contentType == null) {
+            throw new IllegalArgumentException("File content type is null");
         }
+        validateFileType(contentType, mediaType);
+        
+        String fileExtension = getFileExtensionFromContentType(contentType);
+        if (fileExtension == null || fileExtension.isEmpty()) {
+            fileExtension = switch (mediaType) {
+                case IMAGE -> ".jpg";
+                case VIDEO -> ".mp4";
+                case AUDIO -> ".mp3";
+            };
+        }
+        String objectKey = generateObjectKey(weddingId, mediaType, fileExtension);
+        
+        long maxBytes = awsS3Properties.getMaxFileSizeMB() * 1024L * 1024L;
+        long size = mediaStore.putStream(objectKey, contentType, body, maxBytes);
+        log.info("Successfully streamed media to {}: {} ({} bytes)", mediaStore.provider(), objectKey, size);
+        return objectKey;
     }
     
-    public void deleteWeddingMedia(UUID weddingId) {
-        try (S3Client s3Client = getS3Client()) {
-            String bucketName = awsS3Properties.getBucketName();
-            
-            var listResponse = s3Client.listObjectsV2(b -> b
-                .bucket(bucketName)
-                .prefix(weddingId.toString() + "/")
-            );
-            
-            if (listResponse.contents() != null) {
-                listResponse.contents().forEach(object -> {
-                    s3Client.deleteObject(b -> b.bucket(bucketName).key(object.key()));
-                });
-                log.info("Successfully deleted {} media files for wedding: {}", 
-                    listResponse.contents().size(), weddingId);
-            }
+    public void deleteMedia(String objectKey) {
+        try {
+            mediaStore.delete(List.of(objectKey));
+            log.info("Successfully deleted media from {}: {}", mediaStore.provider(), objectKey);
         } catch (Exception e) {
-            log.error("Failed to delete wedding media for wedding: {}", weddingId, e);
+            log.error("Failed to delete media: {}", objectKey, e);
         }
     }
     
     public String getMediaUrl(String objectKey) {
-        return awsS3Properties.getPublicUrl() + "/" + objectKey;
+        return getPublicMediaUrl(objectKey);
     }
     
     public String getPublicMediaUrl(String objectKey) {
-        return awsS3Properties.getPublicUrl() + "/" + objectKey;
+        return mediaStoreProperties.publicUrlOr(awsS3Properties.getPublicUrl()) + "/" + objectKey;
     }
 
     // Removed server-side raw byte upload helper; presigned upload path is preferred.
@@ -296,7 +323,7 @@ public class S3Service {
 
     public PresignedUploadResponse generatePresignedUploadUrlForKey(String objectKey, String contentType) {
         String bucketName = awsS3Properties.getBucketName();
-        try (S3Presigner presigner = getS3Presigner()) {
+        try {
             String cacheControl = "public, max-age=31536000, immutable";
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
@@ -0,0 +1,24 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * In-JVM transcoder that copies the original as its rendition. Selected with transcode.transcoder=stub
+ * for tests and environments without ffmpeg.
+ */
+public class StubTranscoder implements Transcoder {
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public Result transcode(Path source, Path target) throws IOException {
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return new Result(null);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.demo.services;
+
+import com.example.demo.config.ThumbnailProperties;
+import com.example.demo.events.PostCreatedEvent;
+import com.example.demo.events.PostMediaProcessedEvent;
+import com.example.demo.models.Post;
+import com.example.demo.models.PostMedia;
+import com.example.demo.models.ThumbnailStatus;
+import com.example.demo.repositories.PostMediaRepository;
+import com.example.demo.repositories.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Generates downscaled JPEG variants (responsive widths, the smallest doubling as the thumbnail) of
+ * image originals with ImageIO, after the post that attached them commits. Work runs on a small fixed pool behind a bounded queue; when the queue is full the
+ * media simply stays PENDING and the periodic sweep retries it, so request threads never block on it.
+ * Thumbnails are written next to the original under the "_thumbnail" naming convention and the media's
+ * thumbnail_status only flips to COMPLETED, together with the original's dimensions and the widths
+ * written, once every variant exists.
+ */
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    private final ThumbnailProperties properties;
+    private final PostMediaRepository postMediaRepository;
+    private final PostRepository postRepository;
+    private final MediaStore mediaStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor executor;
+    // Media queued or being processed on this node; keeps the sweep from enqueueing duplicates
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private record ThumbnailJob(UUID mediaId, UUID postId, UUID weddingId, String objectKey) {
+    }
+
+    // Decoded (possibly subsampled) image plus the original's pixel size
+    private record DecodedImage(BufferedImage image, int width, int height) {
+    }
+
+    public ThumbnailService(ThumbnailProperties properties, PostMediaRepository postMediaRepository,
+                            PostRepository postRepository, MediaStore mediaStore,
+                            ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.postMediaRepository = postMediaRepository;
+        this.postRepository = postRepository;
+        this.mediaStore = mediaStore;
+        this.eventPublisher = eventPublisher;
+        this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (PostMedia media : postMediaRepository.findByPostIdOrderByOrderIndex(event.postId())) {
+            if (media.getThumbnailStatus() == ThumbnailStatus.PENDING) {
+                enqueue(new ThumbnailJob(media.getId(), media.getPostId(), event.weddingId(), media.getObjectKey()));
+            }
+        }
+    }
+
+    /**
+     * Picks up media left PENDING by a full queue, a restart or another node going away.
+     */
+    @Scheduled(fixedDelayString = "${thumbnails.sweepIntervalMillis:60000}",
+               initialDelayString = "${thumbnails.sweepIntervalMillis:60000}")
+    public void sweep() {
+        if (!properties.isEnabled() || executor.getQueue().remainingCapacity() == 0) {
+            return;
+        }
+        List<PostMedia> pending = postMediaRepository.findByThumbnailStatus(ThumbnailStatus.PENDING,
+                PageRequest.of(0, properties.getSweepBatchSize()));
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<UUID, UUID> weddingByPost = postRepository.findAllById(pending.stream().map(PostMedia::getPostId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Post::getId, Post::getWeddingId));
+        int queued = 0;
+        for (PostMedia media : pending) {
+            UUID weddingId = weddingByPost.get(media.getPostId());
+            if (weddingId != null && enqueue(new ThumbnailJob(media.getId(), media.getPostId(), weddingId, media.getObjectKey()))) {
+                queued++;
+            }
+        }
+        log.debug("Thumbnail sweep queued {} of {} pending media", queued, pending.size());
+    }
+
+    private boolean enqueue(ThumbnailJob job) {
+        if (!inFlight.add(job.mediaId())) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(job);
+                } finally {
+                    inFlight.remove(job.mediaId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Backpressure: leave it PENDING for the sweep
+            inFlight.remove(job.mediaId());
+            log.debug("Thumbnail queue full; deferring media {}", job.mediaId());
+            return false;
+        }
+    }
+
+    private void process(ThumbnailJob job) {
+        String originalKey = PostMedia.fullKey(job.weddingId(), job.objectKey());
+        try {
+            DecodedImage source = readDownsampled(originalKey);
+            if (source == null) {
+                log.warn("Unsupported or oversized image {}; no thumbnail generated", originalKey);
+                postMediaRepository.updateThumbnailStatus(job.mediaId(), ThumbnailStatus.FAILED);
+                return;
+            }
+            // Widths at or above the original's add nothing over the original itself; the smallest
+            // is always written since it doubles as the default thumbnail
+            List<Integer> configured = properties.getWidths().stream().sorted().toList();
+            List<Integer> widths = configured.stream().filter(width -> width < source.width()).toList();
+            if (widths.isEmpty()) {
+                widths = configured.subList(0, 1);
+            }
+            // Largest width first so each smaller variant is scaled from the previous one
+            BufferedImage current = source.image();
+            for (int i = widths.size() - 1; i >= 0; i--) {
+                current = scaleToWidth(current, widths.get(i));
+                Integer keyWidth = i == 0 ? null : widths.get(i);
+                mediaStore.put(PostMedia.thumbnailKey(originalKey, keyWidth), encodeJpeg(current), "image/jpeg");
+            }
+            postMediaRepository.completeThumbnails(job.mediaId(), source.width(), source.height(),
+                    widths.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            eventPublisher.publishEvent(new PostMediaProcessedEvent(job.weddingId(), job.postId(), job.mediaId()));
+            log.info("Generated {} thumbnails for {}", widths.size(), originalKey);
+        } catch (Exception e) {
+            log.error("Thumbnail generation failed for {}", originalKey, e);
+            postMediaRepository.updateThumbnailStatus(job.mediaId(), ThumbnailStatus.FAILED);
+        }
+    }
+
+    /**
+     * Decodes the original, subsampling at read time when it is much larger than the widest thumbnail
+     * so a 12MP photo never has to be fully materialised. Returns null for formats ImageIO cannot read
+     * and for images above the pixel limit.
+     */
+    private DecodedImage readDownsampled(String objectKey) throws IOException {
+        try (InputStream in = mediaStore.open(objectKey);
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > properties.getMaxSourcePixels()) {
+                    return null;
+                }
+                int maxWidth = properties.getWidths().stream().max(Integer::compare).orElse(width);
+                // Keep at least 2x the target so the final bilinear passes still have detail to work with
+                int subsampling = Math.max(1, width / (maxWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return new DecodedImage(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales down in halving steps (bilinear each), which avoids the aliasing of a single large bilinear step.
+     * Never upscales. Output is opaque RGB on white, since JPEG has no alpha.
+     */
+    private static BufferedImage scaleToWidth(BufferedImage source, int targetWidth) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int targetHeight = PostMedia.scaledHeight(width, height, targetWidth);
+        targetWidth = Math.min(targetWidth, width);
+        BufferedImage current = source;
+        do {
+            int nextWidth = Math.max(targetWidth, width / 2);
+            int nextHeight = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, nextWidth, nextHeight);
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+            width = nextWidth;
+            height = nextHeight;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getJpegQuality());
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
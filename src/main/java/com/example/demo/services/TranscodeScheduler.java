@@ -0,0 +1,154 @@
+package com.example.demo.services;
+
+import com.example.demo.config.TranscodeProperties;
+import com.example.demo.events.PostMediaProcessedEvent;
+import com.example.demo.models.PostMedia;
+import com.example.demo.repositories.TranscodeQueueRepository;
+import com.example.demo.repositories.TranscodeQueueRepository.TranscodeJob;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives pending video media through the configured {@link Transcoder}. Each node polls the shared
+ * post_media queue and claims only as many jobs as it has free slots (transcode.maxConcurrent), so
+ * nodes can be added or removed freely. Failed attempts are retried with exponential backoff up to
+ * transcode.maxAttempts, then marked FAILED. The rendition is written next to the original as
+ * "<key>_web.mp4" and transcode_status becomes COMPLETED.
+ */
+@Slf4j
+@Service
+public class TranscodeScheduler {
+
+    private final TranscodeProperties properties;
+    private final TranscodeQueueRepository queueRepository;
+    private final Transcoder transcoder;
+    private final MediaStore mediaStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService workers;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean ready;
+
+    public TranscodeScheduler(TranscodeProperties properties, TranscodeQueueRepository queueRepository,
+                              Transcoder transcoder, MediaStore mediaStore, ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.queueRepository = queueRepository;
+        this.transcoder = transcoder;
+        this.mediaStore = mediaStore;
+        this.eventPublisher = eventPublisher;
+        this.workers = Executors.newFixedThreadPool(properties.getMaxConcurrent(), runnable -> {
+            Thread thread = new Thread(runnable, "transcode-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ready = transcoder.isAvailable();
+        if (!ready) {
+            // Videos stay PENDING and are served as uploaded until a node with a transcoder picks them up
+            log.warn("No transcoder available ({}); video transcoding is disabled on this node", properties.getTranscoder());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${transcode.pollIntervalMillis:10000}")
+    public void poll() {
+        if (!ready) {
+            return;
+        }
+        int free = properties.getMaxConcurrent() - running.get();
+        if (free <= 0) {
+            return;
+        }
+        List<TranscodeJob> jobs = queueRepository.claim(free, Duration.ofMinutes(properties.getLeaseMinutes()));
+        for (TranscodeJob job : jobs) {
+            running.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void run(TranscodeJob job) {
+        if (job.attempt() > properties.getMaxAttempts()) {
+            // Reclaimed after its last lease ran out (e.g. the node crashed mid-transcode every time)
+            queueRepository.fail(job);
+            log.warn("Giving up on transcode of media {} after {} attempts", job.mediaId(), job.attempt() - 1);
+            return;
+        }
+        String originalKey = PostMedia.fullKey(job.weddingId(), job.objectKey());
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("transcode-");
+            Path source = workDir.resolve("source");
+            Path target = workDir.resolve("web.mp4");
+            try (InputStream in = mediaStore.open(originalKey)) {
+                Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Transcoder.Result result = transcoder.transcode(source, target);
+            mediaStore.putFile(PostMedia.renditionKey(originalKey), target, "video/mp4");
+            if (queueRepository.complete(job, result.durationSec())) {
+                eventPublisher.publishEvent(new PostMediaProcessedEvent(job.weddingId(), job.postId(), job.mediaId()));
+                log.info("Transcoded {} (attempt {})", originalKey, job.attempt());
+            } else {
+                log.warn("Transcode of media {} finished after its claim was taken over; result discarded", job.mediaId());
+            }
+        } catch (Exception e) {
+            if (job.attempt() < properties.getMaxAttempts()) {
+                Instant next = Instant.now().plus(backoff(job.attempt()));
+                queueRepository.retryAt(job, next);
+                log.warn("Transcode of {} failed (attempt {}), retrying at {}: {}", originalKey, job.attempt(), next, e.getMessage());
+            } else {
+                queueRepository.fail(job);
+                log.error("Transcode of {} failed permanently after {} attempts", originalKey, job.attempt(), e);
+            }
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        long seconds = properties.getBackoffBaseSeconds() << Math.min(attempt - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, properties.getBackoffMaxSeconds()));
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (var files = Files.walk(dir)) {
+            files.sorted(java.util.Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (Exception e) {
+            log.debug("Failed to clean up {}", dir, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs keep their claim until the lease runs out, then another node retries them
+        workers.shutdownNow();
+    }
+}
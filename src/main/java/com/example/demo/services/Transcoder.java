@@ -0,0 +1,18 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Produces a web-optimised rendition of a video file. Implementations must be thread-safe;
+ * the transcode scheduler runs up to transcode.maxConcurrent of them at once.
+ */
+public interface Transcoder {
+
+    record Result(Integer durationSec) {
+    }
+
+    boolean isAvailable();
+
+    Result transcode(Path source, Path target) throws IOException;
+}
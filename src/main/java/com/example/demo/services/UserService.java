@@ -1,9 +1,11 @@
 package com.example.demo.services;
 
+import com.example.demo.events.UserProfileUpdatedEvent;
 import com.example.demo.models.User;
 import com.example.demo.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ import java.util.UUID;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public User upsertUserByPhone(String phone) {
@@ -58,7 +61,11 @@ public class UserService {
         if (username != null) user.updateUsername(username);
         if (avatarUrl != null) user.updateAvatarUrl(avatarUrl);
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (name != null || avatarUrl != null) {
+            eventPublisher.publishEvent(new UserProfileUpdatedEvent(userId, savedUser.getName(), savedUser.getAvatarUrl()));
+        }
+        return savedUser;
     }
     
     public boolean existsByEmail(String email) {
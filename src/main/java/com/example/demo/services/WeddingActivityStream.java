@@ -0,0 +1,290 @@
+package com.example.demo.services;
+
+import com.example.demo.config.StreamProperties;
+import com.example.demo.events.CommentCreatedEvent;
+import com.example.demo.events.PostCreatedEvent;
+import com.example.demo.events.PostLikeToggledEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events fan-out of wedding activity (NEW_POST, LIKE_COUNT, NEW_COMMENT).
+ * Events are emitted after the writing transaction commits. Each connection has a bounded
+ * queue drained on a virtual thread started only while there is something to send, so idle
+ * connections hold no threads and a client whose socket stalls a blocking send parks only its own
+ * drain, never the others'; a client that falls behind is disconnected and resumes from the
+ * per-wedding replay buffer via Last-Event-ID.
+ * A wedding's channel (and its replay buffer) outlives its last subscriber until it has been idle for
+ * stream.channelIdleTtlMinutes, so a dropped client can still resume. Event ids come from one node-wide
+ * sequence seeded from the clock, so they never repeat, even after a channel is evicted or the node
+ * restarts. A client whose Last-Event-ID is older than the buffer gets RESYNC and should refetch.
+ * Streams are per node.
+ */
+@Slf4j
+@Component
+public class WeddingActivityStream {
+
+    public static final String NEW_POST = "NEW_POST";
+    public static final String LIKE_COUNT = "LIKE_COUNT";
+    public static final String NEW_COMMENT = "NEW_COMMENT";
+    // Sent on reconnect when the missed events are no longer buffered
+    public static final String RESYNC = "RESYNC";
+
+    private final StreamProperties properties;
+    private final ConcurrentMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+    // Shared by all channels; starts above any id handed out by a previous run of this node
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ExecutorService dispatcher;
+
+    private record StreamEvent(long id, String type, Map<String, Object> data) {
+    }
+
+    /**
+     * Subscribers of one wedding plus a bounded ring buffer of recent events for replay.
+     */
+    private static final class Channel {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final ArrayDeque<StreamEvent> recent = new ArrayDeque<>();
+        private final int capacity;
+        // Every event of this wedding with an id above the horizon is still in the buffer
+        private long horizon;
+        // When the last subscriber left; only meaningful while there are no subscribers
+        private volatile long idleSince;
+
+        private Channel(int capacity, long horizon) {
+            this.capacity = capacity;
+            this.horizon = horizon;
+            this.idleSince = System.currentTimeMillis();
+        }
+
+        private synchronized StreamEvent append(long id, String type, Map<String, Object> data) {
+            StreamEvent event = new StreamEvent(id, type, data);
+            if (recent.size() == capacity) {
+                horizon = recent.pollFirst().id();
+            }
+            recent.addLast(event);
+            return event;
+        }
+
+        /**
+         * Events after lastEventId, or null when some of them have already left the buffer.
+         */
+        private synchronized List<StreamEvent> since(long lastEventId) {
+            if (lastEventId < horizon) {
+                return null;
+            }
+            List<StreamEvent> missed = new ArrayList<>();
+            for (StreamEvent event : recent) {
+                if (event.id() > lastEventId) missed.add(event);
+            }
+            return missed;
+        }
+
+        private synchronized long latestId() {
+            return recent.isEmpty() ? horizon : recent.peekLast().id();
+        }
+    }
+
+    private static final class Subscriber {
+        private final UUID weddingId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(UUID weddingId, SseEmitter emitter, int capacity) {
+            this.weddingId = weddingId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    public WeddingActivityStream(StreamProperties properties) {
+        this.properties = properties;
+        // At most one task per connection at a time (see Subscriber.draining)
+        this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-dispatch-", 0).factory());
+    }
+
+    public SseEmitter subscribe(UUID weddingId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(properties.getEmitterTimeoutMinutes()).toMillis());
+        Subscriber subscriber = new Subscriber(weddingId, emitter, properties.getPerConnectionBuffer());
+        // Attach inside compute so a concurrent idle eviction cannot leave the subscriber on an orphaned channel
+        Channel channel = channels.compute(weddingId, (id, existing) -> {
+            Channel attached = existing != null ? existing : new Channel(properties.getReplayBufferSize(), sequence.get());
+            attached.subscribers.add(subscriber);
+            return attached;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        if (lastEventId != null) {
+            List<StreamEvent> missed = channel.since(lastEventId);
+            if (missed == null || missed.size() > subscriber.pending.remainingCapacity()) {
+                subscriber.pending.offer(new StreamEvent(channel.latestId(), RESYNC, Map.of("weddingId", weddingId)));
+            } else {
+                subscriber.pending.addAll(missed);
+            }
+            schedule(subscriber);
+        }
+        log.debug("SSE subscriber added for wedding {} ({} connected)", weddingId, channel.subscribers.size());
+        return emitter;
+    }
+
+    public void publish(UUID weddingId, String type, Map<String, Object> data) {
+        StreamEvent[] appended = new StreamEvent[1];
+        // Appending inside computeIfPresent serialises with subscribe and eviction, and draws ids
+        // in the order they enter the buffer
+        Channel channel = channels.computeIfPresent(weddingId, (id, existing) -> {
+            appended[0] = existing.append(sequence.incrementAndGet(), type, data);
+            return existing;
+        });
+        if (channel == null) {
+            // Nobody has subscribed recently, so nobody can resume from here
+            return;
+        }
+        StreamEvent event = appended[0];
+        for (Subscriber subscriber : channel.subscribers) {
+            if (subscriber.pending.offer(event)) {
+                schedule(subscriber);
+            } else {
+                // Backpressure: drop the slow connection; the client reconnects with Last-Event-ID
+                log.debug("SSE subscriber for wedding {} fell behind; disconnecting", weddingId);
+                close(subscriber);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        publish(event.weddingId(), NEW_POST, Map.of("postId", event.postId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostLikeToggled(PostLikeToggledEvent event) {
+        publish(event.weddingId(), LIKE_COUNT, Map.of("postId", event.postId(), "likeCount", event.likeCount()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommentCreated(CommentCreatedEvent event) {
+        publish(event.weddingId(), NEW_COMMENT, Map.of("postId", event.postId(), "commentId", event.commentId()));
+    }
+
+    @Scheduled(fixedDelayString = "${stream.heartbeatMillis:15000}")
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.closed.get()) {
+                    continue;
+                }
+                // Heartbeats go straight out unless events are already pending (which keep the connection alive)
+                if (subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+                    dispatcher.execute(() -> {
+                        try {
+                            if (!subscriber.closed.get()) {
+                                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+                            }
+                        } catch (Exception e) {
+                            close(subscriber);
+                        } finally {
+                            subscriber.draining.set(false);
+                        }
+                        if (!subscriber.pending.isEmpty()) schedule(subscriber);
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops channels that have had no subscribers for the idle TTL, together with their replay buffers.
+     */
+    @Scheduled(fixedDelayString = "${stream.channelIdleTtlMinutes:10}", timeUnit = TimeUnit.MINUTES)
+    public void evictIdleChannels() {
+        long cutoff = System.currentTimeMillis() - Duration.ofMinutes(properties.getChannelIdleTtlMinutes()).toMillis();
+        for (UUID weddingId : channels.keySet()) {
+            channels.computeIfPresent(weddingId, (id, channel) ->
+                    channel.subscribers.isEmpty() && channel.idleSince < cutoff ? null : channel);
+        }
+    }
+
+    public int connectionCount() {
+        return channels.values().stream().mapToInt(c -> c.subscribers.size()).sum();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed.get() && subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            StreamEvent event;
+            while (!subscriber.closed.get() && (event = subscriber.pending.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.id()))
+                        .name(event.type())
+                        .data(event.data(), MediaType.APPLICATION_JSON));
+            }
+        } catch (Exception e) {
+            // Client went away mid-send
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have arrived between the last poll and releasing the drain flag
+        if (!subscriber.pending.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (!subscriber.closed.get()) {
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed.set(true);
+        channels.computeIfPresent(subscriber.weddingId, (id, channel) -> {
+            // The channel stays for replay; evictIdleChannels removes it once it has been idle long enough
+            if (channel.subscribers.remove(subscriber) && channel.subscribers.isEmpty()) {
+                channel.idleSince = System.currentTimeMillis();
+            }
+            return channel;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
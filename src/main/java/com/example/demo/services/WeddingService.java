@@ -3,6 +3,8 @@ package com.example.demo.services;
 import com.example.demo.auth.dtos.JoinWeddingDto;
 import com.example.demo.auth.dtos.JoinWeddingResponseDto;
 import com.example.demo.auth.dtos.UserWeddingDto;
+import com.example.demo.events.WeddingContentChangedEvent;
+import com.example.demo.events.WeddingDeletedEvent;
 import com.example.demo.models.MemberRole;
 import com.example.demo.models.MemberStatus;
 import com.example.demo.models.Wedding;
@@ -11,6 +13,7 @@ import com.example.demo.repositories.WeddingMemberRepository;
 import com.example.demo.repositories.WeddingRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,7 +29,7 @@ public class WeddingService {
     
     private final WeddingRepository weddingRepository;
     private final WeddingMemberRepository weddingMemberRepository;
-    private final S3Service s3Service;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public JoinWeddingResponseDto joinWedding(UUID userId, String code, String displayName) {
@@ -56,6 +59,7 @@ public class WeddingService {
         WeddingMember savedMember = weddingMemberRepository.save(member);
         
         log.info("User {} joined wedding {} as member {}", userId, wedding.getId(), savedMember.getId());
+        eventPublisher.publishEvent(new WeddingContentChangedEvent(wedding.getId()));
         
         return new JoinWeddingResponseDto(
                 savedMember.getId(),
@@ -142,8 +146,8 @@ public class WeddingService {
             throw new IllegalArgumentException("User is not authorized to delete this wedding");
         }
         
-        // Delete all wedding media from S3
-        s3Service.deleteWeddingMedia(weddingId);
+        // Media is purged asynchronously after commit; progress is tracked in media_purge_jobs
+        eventPublisher.publishEvent(new WeddingDeletedEvent(weddingId));
         
         // Mark wedding as inactive
         wedding.setActive(false);
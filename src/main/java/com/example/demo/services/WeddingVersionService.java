@@ -0,0 +1,147 @@
+package com.example.demo.services;
+
+import com.example.demo.events.CommentCreatedEvent;
+import com.example.demo.events.PostCreatedEvent;
+import com.example.demo.events.PostDeletedEvent;
+import com.example.demo.events.PostLikeToggledEvent;
+import com.example.demo.events.PostMediaProcessedEvent;
+import com.example.demo.events.UserProfileUpdatedEvent;
+import com.example.demo.events.WeddingContentChangedEvent;
+import com.example.demo.repositories.WeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-wedding content version used for conditional GETs (ETag / If-None-Match).
+ * The version is bumped only after a write commits, so a client can never be handed an ETag
+ * for content it has not seen. Bumps run in their own short transaction so hot writes (likes)
+ * do not hold the wedding row lock for the duration of the writing transaction. Writes inside
+ * one transaction (e.g. a replayed offline batch) are coalesced into a single bump per wedding.
+ * Like toggles are the hottest write and do not bump at all: they mark the wedding dirty after
+ * commit, and each dirty wedding is bumped once per wedding-version.likeBumpIntervalMillis. A
+ * conditional GET may therefore return 304 with a like count up to one interval old.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WeddingVersionService {
+
+    private static final Object PENDING_BUMPS_KEY = new Object();
+
+    private final WeddingRepository weddingRepository;
+    // Weddings with committed like toggles not yet reflected in content_version (per node)
+    private final Set<UUID> likeDirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Builds a strong ETag for one representation of a wedding resource, or null if the wedding does not exist.
+     * The variant must cover everything the representation depends on besides the wedding content
+     * (e.g. page, size, cursor and the viewer for per-viewer fields).
+     */
+    public String etag(UUID weddingId, String resource, Object... variant) {
+        return weddingRepository.findContentVersion(weddingId)
+                .map(version -> "\"" + resource + "-" + version + "-" + Integer.toHexString(Objects.hash(variant)) + "\"")
+                .orElse(null);
+    }
+
+    public void bump(UUID weddingId) {
+        if (weddingId != null) {
+            weddingRepository.bumpContentVersion(weddingId);
+        }
+    }
+
+    /**
+     * Bumps the version once the current transaction commits (immediately when there is none).
+     * Repeated calls for the same wedding within one transaction result in a single bump.
+     */
+    @SuppressWarnings("unchecked")
+    public void bumpAfterCommit(UUID weddingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(weddingId);
+            return;
+        }
+        Set<UUID> pending = (Set<UUID>) TransactionSynchronizationManager.getResource(PENDING_BUMPS_KEY);
+        if (pending == null) {
+            Set<UUID> weddings = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(PENDING_BUMPS_KEY, weddings);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_BUMPS_KEY);
+                    if (status == STATUS_COMMITTED) {
+                        weddings.forEach(WeddingVersionService.this::bump);
+                    }
+                }
+            });
+            pending = weddings;
+        }
+        pending.add(weddingId);
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        bumpAfterCommit(event.weddingId());
+    }
+
+    @EventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        bumpAfterCommit(event.weddingId());
+    }
+
+    @EventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        bumpAfterCommit(event.weddingId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostLikeToggled(PostLikeToggledEvent event) {
+        likeDirty.add(event.weddingId());
+    }
+
+    /**
+     * Bumps every wedding with like toggles since the last run once, each in its own short transaction.
+     */
+    @Scheduled(fixedDelayString = "${wedding-version.likeBumpIntervalMillis:1000}")
+    public void flushLikeBumps() {
+        for (UUID weddingId : List.copyOf(likeDirty)) {
+            likeDirty.remove(weddingId);
+            try {
+                bump(weddingId);
+            } catch (RuntimeException e) {
+                // Retried on the next run
+                likeDirty.add(weddingId);
+                log.warn("Failed to bump content version of wedding {} after likes: {}", weddingId, e.getMessage());
+            }
+        }
+    }
+
+    @EventListener
+    public void onPostMediaProcessed(PostMediaProcessedEvent event) {
+        bumpAfterCommit(event.weddingId());
+    }
+
+    @EventListener
+    public void onWeddingContentChanged(WeddingContentChangedEvent event) {
+        bumpAfterCommit(event.weddingId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+        // Author names and member profiles are rendered in every wedding the user belongs to
+        int bumped = weddingRepository.bumpContentVersionForUser(event.userId());
+        log.debug("Bumped content version of {} weddings after profile update of user {}", bumped, event.userId());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.CommentDto;
+import com.example.demo.models.Comment;
+import com.example.demo.models.Post;
+import com.example.demo.models.PostVisibility;
+import com.example.demo.models.WeddingMember;
+import com.example.demo.repositories.CommentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements needed to build a comment page, so a per-comment author
+ * lookup slipping back into CommentAssembler fails the build.
+ */
+@Import(CommentAssembler.class)
+class CommentAssemblerQueryCountTest extends QueryCountTestSupport {
+
+    private static final int PAGE_SIZE = 20;
+    // Page query and its count query
+    private static final long PAGE_STATEMENTS = 2;
+    // One member query and one user query for the whole page
+    private static final long LEGACY_AUTHOR_STATEMENTS = 2;
+
+    @Autowired
+    private CommentAssembler commentAssembler;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private UUID snapshotPostId;
+    private UUID legacyPostId;
+
+    @BeforeEach
+    void setUp() {
+        UUID weddingId = persistWedding();
+        List<WeddingMember> authors = persistAuthors(weddingId, 5);
+
+        snapshotPostId = persistPost(weddingId, authors.get(0));
+        legacyPostId = persistPost(weddingId, authors.get(0));
+        // One more than a page, so the page is full and Spring Data issues its count query
+        for (int i = 0; i <= PAGE_SIZE; i++) {
+            WeddingMember author = authors.get(i % authors.size());
+
+            Comment snapshot = new Comment(snapshotPostId, author.getId(), "Comment " + i);
+            snapshot.setAuthorUserId(author.getUserId());
+            snapshot.setAuthorName(author.getDisplayName());
+            entityManager.persist(snapshot);
+
+            // Written before the author snapshot existed
+            entityManager.persist(new Comment(legacyPostId, author.getId(), "Legacy comment " + i));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void snapshotPageNeedsNoAuthorQueries() {
+        statistics.clear();
+
+        List<CommentDto> dtos = loadPage(snapshotPostId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(PAGE_STATEMENTS);
+        assertThat(dtos).hasSize(PAGE_SIZE);
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getAuthorName()).startsWith("Author "));
+    }
+
+    @Test
+    void legacyPageResolvesAuthorsInTwoStatements() {
+        statistics.clear();
+
+        List<CommentDto> dtos = loadPage(legacyPostId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(PAGE_STATEMENTS + LEGACY_AUTHOR_STATEMENTS);
+        assertThat(dtos).hasSize(PAGE_SIZE);
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getAuthorName()).startsWith("Author "));
+    }
+
+    @Test
+    void legacyStatementCountDoesNotGrowWithPageSize() {
+        Page<Comment> single = commentRepository.findByPostIdAndIsDeletedFalseOrderByCreatedAtAsc(legacyPostId,
+                PageRequest.of(0, 1));
+        statistics.clear();
+        commentAssembler.assemble(single.getContent());
+        long singleComment = statistics.getPrepareStatementCount();
+
+        Page<Comment> page = commentRepository.findByPostIdAndIsDeletedFalseOrderByCreatedAtAsc(legacyPostId,
+                PageRequest.of(0, PAGE_SIZE));
+        entityManager.clear();
+        statistics.clear();
+        commentAssembler.assemble(page.getContent());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(singleComment);
+    }
+
+    private List<CommentDto> loadPage(UUID postId) {
+        Page<Comment> page = commentRepository.findByPostIdAndIsDeletedFalseOrderByCreatedAtAsc(postId,
+                PageRequest.of(0, PAGE_SIZE));
+        return commentAssembler.assemble(page.getContent());
+    }
+
+    private UUID persistPost(UUID weddingId, WeddingMember author) {
+        Post post = new Post(weddingId, author.getId(), "Post", PostVisibility.PUBLIC);
+        post.setAuthorUserId(author.getUserId());
+        return entityManager.persist(post).getId();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.PostDto;
+import com.example.demo.config.AwsS3Properties;
+import com.example.demo.config.MediaStoreProperties;
+import com.example.demo.models.MediaType;
+import com.example.demo.models.Post;
+import com.example.demo.models.PostLike;
+import com.example.demo.models.PostMedia;
+import com.example.demo.models.PostVisibility;
+import com.example.demo.models.WeddingMember;
+import com.example.demo.repositories.FeedProjectionRepository;
+import com.example.demo.repositories.PostRepository;
+import com.example.demo.repositories.WeddingMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the number of SQL statements needed to assemble a feed page, so an N+1 regression
+ * (a per-post query slipping back into FeedAssembler) fails the build.
+ */
+@Import({FeedAssembler.class, CommentAssembler.class, MediaStoreProperties.class})
+class FeedAssemblerQueryCountTest extends QueryCountTestSupport {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MEDIA_PER_POST = 2;
+    // Authors, media, viewer member, viewer likes
+    private static final long STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private FeedAssembler feedAssembler;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private WeddingMemberRepository weddingMemberRepository;
+
+    @MockitoBean
+    private WeddingService weddingService;
+
+    @MockitoBean
+    private AwsS3Properties awsS3Properties;
+
+    @MockitoBean
+    private FeedProjectionRepository feedProjectionRepository;
+
+    @MockitoBean
+    private LikeCounterBuffer likeCounterBuffer;
+
+    private UUID weddingId;
+    private UUID viewerUserId;
+    private List<UUID> postIds;
+
+    @BeforeEach
+    void setUp() {
+        when(weddingService.getWeddingMember(any(), any())).thenAnswer(invocation ->
+                weddingMemberRepository.findByWeddingIdAndUserId(invocation.getArgument(1), invocation.getArgument(0)));
+        when(likeCounterBuffer.withPending(any(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(awsS3Properties.getPublicUrl()).thenReturn("https://media.example.com");
+
+        weddingId = persistWedding();
+        // A handful of distinct authors, so the author lookup really is a multi-row batch
+        List<WeddingMember> authors = persistAuthors(weddingId, 5);
+        WeddingMember viewerMember = persistMember(weddingId, "Viewer", "+19999999999");
+        viewerUserId = viewerMember.getUserId();
+
+        postIds = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            WeddingMember author = authors.get(i % authors.size());
+            Post post = new Post(weddingId, author.getId(), "Post " + i, PostVisibility.PUBLIC);
+            post.setAuthorUserId(author.getUserId());
+            post.setMediaCount(MEDIA_PER_POST);
+            post = entityManager.persist(post);
+            postIds.add(post.getId());
+            for (int m = 0; m < MEDIA_PER_POST; m++) {
+                entityManager.persist(new PostMedia(post.getId(), MediaType.IMAGE, UUID.randomUUID() + ".jpg",
+                        "image/jpeg", 1024, m));
+            }
+            if (i % 2 == 0) {
+                entityManager.persist(new PostLike(post.getId(), viewerMember.getId()));
+            }
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void assemblesFullPageWithFixedStatementCount() {
+        List<Post> posts = postRepository.findAllById(postIds);
+        statistics.clear();
+
+        List<PostDto> dtos = feedAssembler.assemble(posts, viewerUserId, weddingId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+        assertThat(dtos).hasSize(PAGE_SIZE);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getMedia()).hasSize(MEDIA_PER_POST);
+            assertThat(dto.getAuthorName()).startsWith("Author ");
+        });
+        assertThat(dtos).filteredOn(PostDto::isLikedByUser).hasSize(PAGE_SIZE / 2);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        List<Post> single = postRepository.findAllById(postIds.subList(0, 1));
+        statistics.clear();
+        feedAssembler.assemble(single, viewerUserId, weddingId);
+        long singlePost = statistics.getPrepareStatementCount();
+
+        List<Post> page = postRepository.findAllById(postIds);
+        entityManager.clear();
+        statistics.clear();
+        feedAssembler.assemble(page, viewerUserId, weddingId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(singlePost);
+    }
+
+    @Test
+    void anonymousPageSkipsViewerQueries() {
+        List<Post> posts = postRepository.findAllById(postIds);
+        statistics.clear();
+
+        feedAssembler.assemble(posts, null, weddingId);
+
+        // Authors and media only
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.services;
+
+import com.example.demo.auth.dtos.PostDto;
+import com.example.demo.config.AwsS3Properties;
+import com.example.demo.config.MediaStoreProperties;
+import com.example.demo.models.MediaType;
+import com.example.demo.models.MemberRole;
+import com.example.demo.models.MemberStatus;
+import com.example.demo.models.Post;
+import com.example.demo.models.PostLike;
+import com.example.demo.models.PostMedia;
+import com.example.demo.models.PostVisibility;
+import com.example.demo.models.User;
+import com.example.demo.models.Wedding;
+import com.example.demo.models.WeddingMember;
+import com.example.demo.repositories.FeedProjectionRepository;
+import com.example.demo.repositories.WeddingMemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares p50/p99 latency of a 20-post feed page loaded through the single-statement projection
+ * (FeedAssembler.loadFeedPage) against the entity path (FeedAssembler.assemble over the same page, fetched with one LIMIT query
+ * and no count, so both paths do the same work).
+ * The projection relies on Postgres JSON aggregation, so this only runs against a real Postgres:
+ * set FEED_BENCH_DATASOURCE_URL (plus FEED_BENCH_DATASOURCE_USERNAME / _PASSWORD). The seeded
+ * data lives in the test transaction and is rolled back afterwards.
+ */
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({FeedAssembler.class, CommentAssembler.class, MediaStoreProperties.class, FeedProjectionRepository.class})
+@EnabledIfEnvironmentVariable(named = "FEED_BENCH_DATASOURCE_URL", matches = ".+")
+class FeedProjectionBenchmarkTest {
+
+    private static final int POSTS = 500;
+    private static final int PAGE_SIZE = 20;
+    private static final int MEDIA_PER_POST = 3;
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("FEED_BENCH_DATASOURCE_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("FEED_BENCH_DATASOURCE_USERNAME", ""));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("FEED_BENCH_DATASOURCE_PASSWORD", ""));
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FeedAssembler feedAssembler;
+
+    @Autowired
+    private WeddingMemberRepository weddingMemberRepository;
+
+    @MockitoBean
+    private WeddingService weddingService;
+
+    @MockitoBean
+    private AwsS3Properties awsS3Properties;
+
+    @MockitoBean
+    private LikeCounterBuffer likeCounterBuffer;
+
+    private UUID weddingId;
+    private UUID viewerUserId;
+
+    @BeforeEach
+    void seed() {
+        when(weddingService.getWeddingMember(any(), any())).thenAnswer(invocation ->
+                weddingMemberRepository.findByWeddingIdAndUserId(invocation.getArgument(1), invocation.getArgument(0)));
+        when(likeCounterBuffer.withPending(any(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(awsS3Properties.getPublicUrl()).thenReturn("https://media.example.com");
+
+        Wedding wedding = entityManager.persist(new Wedding("BENCH-" + UUID.randomUUID(), "Benchmark", "A", "B"));
+        weddingId = wedding.getId();
+        List<WeddingMember> authors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = entityManager.persist(new User("Author " + i, "+1555" + UUID.randomUUID().toString().substring(0, 8)));
+            authors.add(entityManager.persist(new WeddingMember(weddingId, user.getId(), "Author " + i,
+                    MemberRole.GUEST, MemberStatus.ACCEPTED)));
+        }
+        User viewer = entityManager.persist(new User("Viewer", "+1555" + UUID.randomUUID().toString().substring(0, 8)));
+        viewerUserId = viewer.getId();
+        WeddingMember viewerMember = entityManager.persist(new WeddingMember(weddingId, viewerUserId, "Viewer",
+                MemberRole.GUEST, MemberStatus.ACCEPTED));
+
+        for (int i = 0; i < POSTS; i++) {
+            WeddingMember author = authors.get(i % authors.size());
+            Post post = new Post(weddingId, author.getId(), "Post " + i, PostVisibility.PUBLIC);
+            post.setAuthorUserId(author.getUserId());
+            post.setMediaCount(MEDIA_PER_POST);
+            post = entityManager.persist(post);
+            for (int m = 0; m < MEDIA_PER_POST; m++) {
+                entityManager.persist(new PostMedia(post.getId(), MediaType.IMAGE, UUID.randomUUID() + ".jpg",
+                        "image/jpeg", 1024, m));
+            }
+            if (i % 3 == 0) {
+                entityManager.persist(new PostLike(post.getId(), viewerMember.getId()));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void projectionVersusEntityPath() {
+        Supplier<List<PostDto>> entityPath = () -> {
+            List<Post> posts = entityManager.getEntityManager()
+                    .createQuery("SELECT p FROM Post p WHERE p.weddingId = :weddingId AND p.isDeleted = false "
+                            + "ORDER BY p.createdAt DESC, p.id DESC", Post.class)
+                    .setParameter("weddingId", weddingId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            return feedAssembler.assemble(posts, viewerUserId, weddingId);
+        };
+        Supplier<List<PostDto>> projection = () ->
+                feedAssembler.loadFeedPage(weddingId, viewerUserId, null, null, PAGE_SIZE);
+
+        // Posts created within the same clock tick may tie on created_at, so only the shape is compared
+        assertThat(projection.get()).hasSameSizeAs(entityPath.get());
+
+        long[] entityNanos = measure(entityPath);
+        long[] projectionNanos = measure(projection);
+        log.info("Feed page ({} posts, {} media each): entity path p50={}ms p99={}ms, projection p50={}ms p99={}ms",
+                PAGE_SIZE, MEDIA_PER_POST,
+                String.format("%.2f", percentile(entityNanos, 50)), String.format("%.2f", percentile(entityNanos, 99)),
+                String.format("%.2f", percentile(projectionNanos, 50)), String.format("%.2f", percentile(projectionNanos, 99)));
+    }
+
+    private long[] measure(Supplier<List<PostDto>> load) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            load.get();
+            entityManager.clear();
+        }
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            // Start every iteration cold so the entity path cannot hit the persistence context
+            entityManager.clear();
+            long start = System.nanoTime();
+            assertThat(load.get()).hasSize(PAGE_SIZE);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.services;
+
+import com.example.demo.models.MemberRole;
+import com.example.demo.models.MemberStatus;
+import com.example.demo.models.User;
+import com.example.demo.models.Wedding;
+import com.example.demo.models.WeddingMember;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared setup for tests that pin the number of SQL statements a code path issues: an H2-backed
+ * JPA slice with Hibernate statistics enabled, plus factories for the wedding and members they seed.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+abstract class QueryCountTestSupport {
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    void initStatistics() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    protected UUID persistWedding() {
+        return entityManager.persist(new Wedding("QC-" + UUID.randomUUID(), "Query count", "A", "B")).getId();
+    }
+
+    /**
+     * Accepted guests named "Author 0".."Author n-1", each with their own user.
+     */
+    protected List<WeddingMember> persistAuthors(UUID weddingId, int count) {
+        List<WeddingMember> authors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            authors.add(persistMember(weddingId, "Author " + i, "+1000000000" + i));
+        }
+        return authors;
+    }
+
+    protected WeddingMember persistMember(UUID weddingId, String name, String phone) {
+        User user = entityManager.persist(new User(name, phone));
+        return entityManager.persist(new WeddingMember(weddingId, user.getId(), name, MemberRole.GUEST, MemberStatus.ACCEPTED));
+    }
+
+    /**
+     * Writes the seeded rows and detaches them, so the measured code starts from a cold persistence context.
+     */
+    protected void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}